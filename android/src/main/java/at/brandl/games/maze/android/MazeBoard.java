@@ -16,8 +16,9 @@ import android.widget.ToggleButton;
 import at.brandl.games.commons.Board;
 import at.brandl.games.maze.android.MazeView.Configuration;
 import at.brandl.games.maze.android.util.SystemUiHider;
-import at.brandl.games.maze.generator.MazeGenerator;
 import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.MazePool;
+import at.brandl.games.maze.generator.MazeSpec;
 import at.brandl.games.maze.generator.Path.Section;
 
 /**
@@ -40,8 +41,11 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 
 	private static final int MIN_MAZE_SIZE = 5;
 	private static final int MAX_MAZE_SIZE = 24;
+	private static final int POOL_CAPACITY = 2;
 
 	private MazeView mazeView;
+	private MazePool mazePool;
+	private boolean destroyed;
 	private int mazeSize = DEFAULT_MAZE_SIZE;
 
 	@Override
@@ -52,6 +56,8 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 
 		setContentView(R.layout.activity_maze_board);
 
+		mazePool = new MazePool(POOL_CAPACITY);
+
 		mazeView = new MazeView(getBaseContext(), new Configuration() {
 
 			@Override
@@ -105,6 +111,13 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 
 	}
 
+	@Override
+	protected void onDestroy() {
+		destroyed = true;
+		mazePool.shutdown();
+		super.onDestroy();
+	}
+
 	@Override
 	public void onClick(View v) {
 
@@ -118,7 +131,6 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 			} else {
 				mazeView.changeFieldColor(BORDER_COLOR);
 			}
-			mazeView.invalidate();
 		}
 	}
 
@@ -151,19 +163,43 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 
 	private void createBoard() {
 
-		new GenerateTask().execute();
+		new GenerateTask(createSpec(mazeSize)).execute();
 
 	}
 
+	/**
+	 * Prepares mazes one step smaller and larger, so moving the seek bar a
+	 * little does not wait for the generator. The pool rejects prefetches
+	 * once the activity is destroyed, so there are none then.
+	 */
+	private void prefetchNeighbourSizes(int size) {
+		if (destroyed) {
+			return;
+		}
+		if (size > MIN_MAZE_SIZE) {
+			mazePool.prefetch(createSpec(size - 1));
+		}
+		if (size < MAX_MAZE_SIZE) {
+			mazePool.prefetch(createSpec(size + 1));
+		}
+	}
+
+	private static MazeSpec createSpec(int size) {
+		return new MazeSpec(size, (int) (size * MAZE_RATIO),
+				AVERAGE_PATH_LENGTH);
+	}
+
 	private class GenerateTask extends AsyncTask<Void, Integer, Board<Section>>
 			implements ProgressListener {
 
+		private final MazeSpec spec;
 		private ViewGroup progressView;
 		private ProgressBar progressBar;
 		private ToggleButton lightSwitch;
 		private SeekBar mazeSizeBar;
 
-		private GenerateTask() {
+		private GenerateTask(MazeSpec spec) {
+			this.spec = spec;
 			this.progressView = (ViewGroup) findViewById(R.id.view_progress);
 			this.progressBar = (ProgressBar) findViewById(R.id.progress_bar);
 			this.lightSwitch = (ToggleButton) findViewById(R.id.light_switch);
@@ -176,19 +212,11 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 			lightSwitch.setEnabled(false);
 			mazeSizeBar.setEnabled(false);
 			progressBar.setProgress(0);
-			progressView.setVisibility(RelativeLayout.VISIBLE);
 		}
 
 		@Override
 		protected Board<Section> doInBackground(Void... params) {
-			Board<Section> board = new Board<Section>(mazeSize,
-					(int) (mazeSize * MAZE_RATIO));
-			MazeGenerator generator = new MazeGenerator(board);
-	
-			generator.setAverageNumberOfStepsToNextBranch(AVERAGE_PATH_LENGTH);
-			generator.addProgressListener(this);
-			generator.generate();
-			return board;
+			return mazePool.get(spec, this);
 		}
 
 		@Override
@@ -196,6 +224,7 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 			final ViewGroup viewContainer = (ViewGroup) findViewById(R.id.view_container);
 			MazeView mazeView = (MazeView) viewContainer.getChildAt(0);
 			mazeView.setBoard(result);
+			prefetchNeighbourSizes(spec.getWidth());
 			progressView.setVisibility(View.INVISIBLE);
 			lightSwitch.setEnabled(true);
 			mazeSizeBar.setEnabled(true);
@@ -206,8 +235,13 @@ public class MazeBoard extends Activity implements OnSeekBarChangeListener,
 			publishProgress(progress);
 		}
 
+		/**
+		 * The pool reports progress only if it generates the maze on this
+		 * task, so the progress is shown with the first update.
+		 */
 		@Override
 		protected void onProgressUpdate(Integer... values) {
+			progressView.setVisibility(RelativeLayout.VISIBLE);
 			progressBar.setProgress(values[0]);
 		}
 
@@ -4,13 +4,11 @@ import static at.brandl.games.commons.Orientation.EAST;
 import static at.brandl.games.commons.Orientation.NORTH;
 import static at.brandl.games.commons.Orientation.SOUTH;
 import static at.brandl.games.commons.Orientation.WEST;
-import static at.brandl.games.maze.generator.Path.Target.START;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.drawable.LayerDrawable;
-import android.graphics.drawable.ShapeDrawable;
-import android.graphics.drawable.shapes.RectShape;
+import android.graphics.Rect;
 import android.util.DisplayMetrics;
 import android.view.Display;
 import android.view.MotionEvent;
@@ -18,9 +16,19 @@ import android.view.View;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 import at.brandl.games.commons.Board;
-import at.brandl.games.commons.Board.Field;
+import at.brandl.games.commons.Orientation;
 import at.brandl.games.maze.generator.Path.Section;
-
+import at.brandl.games.maze.solver.DistanceIndex;
+
+/**
+ * Paints the maze once into an offscreen bitmap, which is kept as long as
+ * the size of the maze does not change. Visiting a field paints only that
+ * field into the bitmap and invalidates only its rectangle.
+ * <p>
+ * Every field has a state, whose colour is looked up in a palette, so
+ * changing a colour repaints the fields of that state without touching the
+ * board.
+ */
 public class MazeView extends View {
 
 	public static interface Configuration {
@@ -45,14 +53,29 @@ public class MazeView extends View {
 	private static final int BOTTOM_BORDER = 4;
 	private static final int LEFT_BORDER = 8;
 
+	private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+	public static final byte FIELD = 0;
+	public static final byte VISITED = 1;
+	public static final byte START = 2;
+	public static final byte END = 3;
+	public static final byte SUCCESS = 4;
+
 	private int borderWidth;
 	private int borderColor;
-	private int fieldColor;
-	private int visitedFieldColor;
-	private int successFieldColor;
+	private final int[] palette = new int[SUCCESS + 1];
 
-	private LayerDrawable layerDrawable;
+	private Bitmap bitmap;
+	private Canvas bitmapCanvas;
+	private final Paint paint = new Paint();
+	private final Rect fieldRect = new Rect();
+	private final Rect dirty = new Rect();
 	private Board<Section> board;
+	private byte[] passages;
+	private byte[] states;
+	private final int[] offsets = new int[ORIENTATIONS.length];
+	private float lastX;
+	private float lastY;
 	private int size;
 
 	private int mazeWidth;
@@ -60,17 +83,19 @@ public class MazeView extends View {
 
 	private DisplayMetrics metrics;
 	private boolean gameOver;
-	private Field<Section> start;
-	private Field<Section> end;
+	private int start;
+	private int end;
 
 	public MazeView(Context context, Configuration config) {
 		super(context);
 
 		this.borderWidth = config.getBorderWidth();
 		this.borderColor = config.getBorderColor();
-		this.fieldColor = config.getFieldColor();
-		this.visitedFieldColor = config.getVisitedFieldColor();
-		this.successFieldColor = config.getSuccessFieldColor();
+		palette[FIELD] = config.getFieldColor();
+		palette[VISITED] = config.getVisitedFieldColor();
+		palette[START] = config.getVisitedFieldColor();
+		palette[END] = config.getSuccessFieldColor();
+		palette[SUCCESS] = config.getSuccessFieldColor();
 		getDisplayMetrics(context);
 
 	}
@@ -95,12 +120,33 @@ public class MazeView extends View {
 		setLayoutParams(new FrameLayout.LayoutParams(size * mazeWidth, size
 				* mazeHeight));
 
-		layerDrawable = new LayerDrawable(createShapes());
-		updateField(start, visitedFieldColor);
-		updateField(end, successFieldColor);
+		createBitmap();
+		bitmapCanvas.drawColor(borderColor);
+		for (int index = 0; index < states.length; index++) {
+			drawField(index);
+		}
+		dirty.setEmpty();
+		invalidate();
 		gameOver = false;
 	}
 
+	/**
+	 * Reuses the bitmap of the last board if it has the same size.
+	 */
+	private void createBitmap() {
+		int width = size * mazeWidth;
+		int height = size * mazeHeight;
+		if (bitmap != null && bitmap.getWidth() == width
+				&& bitmap.getHeight() == height) {
+			return;
+		}
+		if (bitmap != null) {
+			bitmap.recycle();
+		}
+		bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+		bitmapCanvas = new Canvas(bitmap);
+	}
+
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
 
@@ -108,147 +154,171 @@ public class MazeView extends View {
 			return true;
 		}
 
-		boolean updated = false;
-		if (MotionEvent.ACTION_MOVE == event.getAction()
-				|| MotionEvent.ACTION_DOWN == event.getAction()) {
-
+		if (MotionEvent.ACTION_DOWN == event.getAction()) {
+			lastX = event.getX(0);
+			lastY = event.getY(0);
+			visitField(calcField(lastY), calcField(lastX));
+		} else if (MotionEvent.ACTION_MOVE == event.getAction()) {
 			for (int h = 0; h < event.getHistorySize(); h++) {
-				float x = event.getHistoricalX(0, h);
-				float y = event.getHistoricalY(0, h);
-				updated |= updateField(x, y);
+				stroke(event.getHistoricalX(0, h), event.getHistoricalY(0, h));
 			}
+			stroke(event.getX(0), event.getY(0));
+		}
 
-			float x = event.getX(0);
-			float y = event.getY(0);
-			updated |= updateField(x, y);
-
-			if (updated) {
-				invalidate();
-			}
+		if (!dirty.isEmpty()) {
+			invalidate(dirty);
+			dirty.setEmpty();
 		}
 		return true;
 	}
 
-	private boolean updateField(float x, float y) {
-		int row = calcRow(y);
-		int column = calcColumn(x);
-		if (row >= 0 && column >= 0) {
-			Field<Section> boardField = board.getField(row, column);
-			if (!boardField.isVisited()) {
-				boolean update = false;
-
-				if (isStart(boardField)) {
-					update = true;
-				} else {
-
-					Section section = boardField.getContent();
-
-					for (Section neighbour : section.getNeighbours().values()) {
-						if (neighbour.getField() != null
-								&& neighbour.getField().isVisited()) {
-							update = true;
-							break;
-						}
-					}
-				}
-				if (update) {
-					boardField.setVisited(true);
-					if (isEnd(boardField)) {
-						gameOver = true;
-						Section section;
-						Section nextSection = boardField.getContent();
-						do {
-							section = nextSection;
-							Field<Section> field = section.getField();
-							updateField(field, successFieldColor);
-							nextSection = section.getTarget(START);
-						} while (!nextSection.equals(section));
-					} else {
-						updateField(boardField, visitedFieldColor);
-					}
-					return true;
-				}
+	/**
+	 * Visits every field crossed by the line from the last touch point to
+	 * the given one, so fast swipes do not skip fields. The fields are walked
+	 * one edge at a time, in the order the line crosses the edges.
+	 */
+	private void stroke(float x, float y) {
+		float x0 = lastX;
+		float y0 = lastY;
+		lastX = x;
+		lastY = y;
+
+		int column = calcField(x0);
+		int row = calcField(y0);
+		int endColumn = calcField(x);
+		int endRow = calcField(y);
+
+		float dx = x - x0;
+		float dy = y - y0;
+		int stepColumn = dx > 0 ? 1 : -1;
+		int stepRow = dy > 0 ? 1 : -1;
+		// the part of the line after which the next vertical or horizontal
+		// edge is crossed
+		float nextColumn = dx == 0 ? Float.POSITIVE_INFINITY
+				: ((column + (dx > 0 ? 1 : 0)) * size - x0) / dx;
+		float nextRow = dy == 0 ? Float.POSITIVE_INFINITY
+				: ((row + (dy > 0 ? 1 : 0)) * size - y0) / dy;
+		float columnDelta = dx == 0 ? 0 : size / Math.abs(dx);
+		float rowDelta = dy == 0 ? 0 : size / Math.abs(dy);
+
+		while (!gameOver && (column != endColumn || row != endRow)) {
+			if (row == endRow
+					|| (column != endColumn && nextColumn < nextRow)) {
+				column += stepColumn;
+				nextColumn += columnDelta;
+			} else {
+				row += stepRow;
+				nextRow += rowDelta;
 			}
+			visitField(row, column);
 		}
-		return false;
 	}
 
-	private void updateField(Field<Section> field, int color) {
-		ShapeDrawable viewField = getField(field.getRow(), field.getColumn());
-		Paint paint = viewField.getPaint();
-		paint.setColor(color);
-	}
+	/**
+	 * Visits the field if it is the start or has a passage to a visited
+	 * field.
+	 */
+	private void visitField(int row, int column) {
+		if (row < 0 || row >= mazeHeight || column < 0 || column >= mazeWidth) {
+			return;
+		}
+		int index = row * mazeWidth + column;
+		if (isVisited(index)
+				|| !(index == start || hasVisitedNeighbour(index))) {
+			return;
+		}
 
-	private boolean isEnd(Field<Section> field) {
-		return end.equals(field);
+		if (index == end) {
+			gameOver = true;
+			showSolution();
+		} else {
+			updateField(index, VISITED);
+		}
 	}
 
-	private boolean isStart(Field<Section> field) {
-		return start.equals(field);
+	/**
+	 * Falls back to the path of a {@link DistanceIndex} for boards without a
+	 * solution set.
+	 */
+	private void showSolution() {
+		int[] solutionPath = board.getSolutionPath();
+		int length;
+		if (solutionPath != null) {
+			length = solutionPath.length;
+		} else {
+			solutionPath = new int[board.getSize()];
+			length = new DistanceIndex(board, start).getPath(end, start,
+					solutionPath);
+		}
+		for (int i = 0; i < length; i++) {
+			updateField(solutionPath[i], SUCCESS);
+		}
 	}
 
-	private ShapeDrawable getField(int row, int column) {
-
-		int fieldIndex = calcFieldIndex(row, column);
+	private boolean isVisited(int index) {
+		return states[index] == VISITED || states[index] == SUCCESS;
+	}
 
-		return (ShapeDrawable) layerDrawable.getDrawable(fieldIndex);
+	private boolean hasVisitedNeighbour(int index) {
+		int fieldPassages = passages[index];
+		for (int orientation = 0; orientation < ORIENTATIONS.length; orientation++) {
+			if ((fieldPassages & 1 << orientation) != 0
+					&& isVisited(index + offsets[orientation])) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private int calcColumn(float x) {
-		int column = calcField(x);
-		return column >= 0 && column < mazeWidth ? column : -1;
+	private void updateField(int index, byte state) {
+		states[index] = state;
+		drawField(index);
 	}
 
-	private int calcRow(float y) {
-		int row = calcField(y);
-		return row >= 0 && row < mazeHeight ? row : -1;
+	/**
+	 * Paints the field in the colour of its state into the bitmap and adds it
+	 * to the dirty rectangle.
+	 */
+	private void drawField(int index) {
+		calcFieldRect(index);
+		paint.setColor(palette[states[index]]);
+		bitmapCanvas.drawRect(fieldRect, paint);
+		dirty.union(fieldRect);
 	}
 
 	private int calcField(float v) {
 		return (int) Math.floor(v / size);
 	}
 
-	private int calcFieldIndex(int row, int column) {
-		if (row >= 0 && row < mazeHeight && column >= 0 && column < mazeWidth) {
-			return row * mazeWidth + column + 1;
+	/**
+	 * Sets the field rectangle to the inside of the field, without its
+	 * borders.
+	 */
+	private void calcFieldRect(int index) {
+		int left = index % mazeWidth * size;
+		int top = index / mazeWidth * size;
+		int right = left + size;
+		int bottom = top + size;
+
+		int borders = calcBorders(passages[index]);
+		if (border(borders, TOP_BORDER)) {
+			top += borderWidth;
 		}
-		return -1;
-	}
-
-	private ShapeDrawable[] createShapes() {
-		int numShapes = mazeWidth * mazeHeight + 1;
-		ShapeDrawable[] rectangles = new ShapeDrawable[numShapes];
-
-		int i = 0;
-		rectangles[i++] = createBackground();
-
-		for (int row = 0; row < mazeHeight; row++) {
-			for (int column = 0; column < mazeWidth; column++) {
-				rectangles[i++] = createField(row, column, fieldColor);
-			}
+		if (border(borders, RIGHT_BORDER)) {
+			right -= borderWidth;
 		}
-		return rectangles;
-	}
-
-	private ShapeDrawable createBackground() {
-		return drawRectangle(0, 0, mazeWidth * size, mazeHeight * size,
-				borderColor, 0);
-	}
-
-	private ShapeDrawable createField(int row, int column, int color) {
-		int left = column * size;
-		int top = row * size;
-
-		Field<Section> field = board.getField(row, column);
-		ShapeDrawable rectangle = drawRectangle(left, top, size, size, color,
-				calcBorders(field.getContent()));
-
-		return rectangle;
+		if (border(borders, BOTTOM_BORDER)) {
+			bottom -= borderWidth;
+		}
+		if (border(borders, LEFT_BORDER)) {
+			left += borderWidth;
+		}
+		fieldRect.set(left, top, right, bottom);
 	}
 
 	protected void onDraw(Canvas canvas) {
-		if (layerDrawable != null) {
-			layerDrawable.draw(canvas);
+		if (bitmap != null) {
+			canvas.drawBitmap(bitmap, 0, 0, null);
 		}
 	}
 
@@ -256,66 +326,82 @@ public class MazeView extends View {
 		this.board = board;
 		mazeWidth = board.getWidth();
 		mazeHeight = board.getHeight();
-		start = board.getStart();
-		end = board.getEnd();
+		start = board.getStart().getIndex();
+		end = board.getEnd().getIndex();
+		passages = new byte[board.getSize()];
+		for (int index = 0; index < passages.length; index++) {
+			passages[index] = (byte) board.getField(index).getPassages();
+		}
+		states = new byte[passages.length];
+		states[start] = START;
+		states[end] = END;
+		for (Orientation orientation : ORIENTATIONS) {
+			offsets[orientation.ordinal()] = getOffset(orientation);
+		}
 
 		calcMazeSizes();
 		drawBoard();
 	}
 
-	private int calcBorders(Section section) {
+	private int getOffset(Orientation orientation) {
+		switch (orientation) {
+		case NORTH:
+			return -mazeWidth;
+		case EAST:
+			return 1;
+		case SOUTH:
+			return mazeWidth;
+		case WEST:
+			return -1;
+		default:
+			throw new AssertionError("unknown Orientation " + orientation);
+		}
+	}
+
+	private int calcBorders(int fieldPassages) {
 		int result = TOP_BORDER + LEFT_BORDER + RIGHT_BORDER + BOTTOM_BORDER;
-		if (section.hasNeighbour(NORTH)) {
+		if ((fieldPassages & NORTH.getMask()) != 0) {
 			result -= TOP_BORDER;
 		}
-		if (section.hasNeighbour(EAST)) {
+		if ((fieldPassages & EAST.getMask()) != 0) {
 			result -= RIGHT_BORDER;
 		}
-		if (section.hasNeighbour(SOUTH)) {
+		if ((fieldPassages & SOUTH.getMask()) != 0) {
 			result -= BOTTOM_BORDER;
 		}
-		if (section.hasNeighbour(WEST)) {
+		if ((fieldPassages & WEST.getMask()) != 0) {
 			result -= LEFT_BORDER;
 		}
 		return result;
 	}
 
-	private ShapeDrawable drawRectangle(int left, int top, int width,
-			int height, int color, int borders) {
-
-		if (border(borders, TOP_BORDER)) {
-			top += borderWidth;
-			height -= borderWidth;
-		}
-		if (border(borders, RIGHT_BORDER)) {
-			width -= borderWidth;
-		}
-		if (border(borders, BOTTOM_BORDER)) {
-			height -= borderWidth;
-		}
-		if (border(borders, LEFT_BORDER)) {
-			left += borderWidth;
-			width -= borderWidth;
-		}
-
-		ShapeDrawable mDrawable = new ShapeDrawable(new RectShape());
-		mDrawable.getPaint().setColor(color);
-		mDrawable.setBounds(left, top, left + width, top + height);
-		return mDrawable;
-	}
-
 	private boolean border(int borders, int border) {
 		return (border & borders) == border;
 	}
 
 	public void changeFieldColor(int color) {
-		fieldColor = color;
-		for (Field<Section> field : board.getFields()) {
-			if (!field.isVisited() && !isEnd(field) && !isStart(field)) {
-				updateField(field, fieldColor);
+		setStateColor(FIELD, color);
+	}
+
+	/**
+	 * Swaps the colour of a state in the palette and repaints the fields of
+	 * that state with a single invalidate.
+	 */
+	public void setStateColor(byte state, int color) {
+		if (palette[state] == color) {
+			return;
+		}
+		palette[state] = color;
+		if (states == null) {
+			return;
+		}
+		for (int index = 0; index < states.length; index++) {
+			if (states[index] == state) {
+				drawField(index);
 			}
 		}
-
+		dirty.setEmpty();
+		invalidate();
 	}
 
 }
@@ -0,0 +1,96 @@
+package at.brandl.games.commons;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.brandl.games.commons.Board.Field;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BoardBenchmark {
+
+	private static class Content implements FieldContent<Content> {
+
+		private Field<? extends FieldContent<Content>> field;
+
+		public Field<? extends FieldContent<Content>> getField() {
+			return field;
+		}
+
+		public void setField(Field<? extends FieldContent<Content>> field) {
+			this.field = field;
+		}
+
+	}
+
+	@Param({ "20", "100", "1000" })
+	private int size;
+
+	private Board<Content> board;
+
+	/**
+	 * Fills every other field, so empty and non empty fields are mixed the
+	 * way they are while a maze is generated.
+	 */
+	@Setup
+	public void setUp() {
+		board = new Board<Content>(size, size);
+		for (Field<Content> field : board.getFields()) {
+			if ((field.getRow() + field.getColumn()) % 2 == 0) {
+				field.setContent(new Content());
+			}
+		}
+	}
+
+	@Benchmark
+	public Board<Content> construct() {
+		return new Board<Content>(size, size);
+	}
+
+	@Benchmark
+	public void getFields(Blackhole blackhole) {
+		for (Field<Content> field : board.getFields()) {
+			blackhole.consume(field);
+		}
+	}
+
+	@Benchmark
+	public Collection<Field<Content>> getEmptyFields() {
+		return board.getEmptyFields();
+	}
+
+	@Benchmark
+	public void getEmptyNeighbours(Blackhole blackhole) {
+		for (Field<Content> field : board.getFields()) {
+			Map<Orientation, Field<Content>> neighbours = field
+					.getEmptyNeighbours();
+			blackhole.consume(neighbours);
+		}
+	}
+
+	@Benchmark
+	public void getEmptyNeighbourMask(Blackhole blackhole) {
+		for (Field<Content> field : board.getFields()) {
+			blackhole.consume(field.getEmptyNeighbourMask());
+		}
+	}
+
+}
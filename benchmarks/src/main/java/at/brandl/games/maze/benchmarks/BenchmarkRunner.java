@@ -0,0 +1,26 @@
+package at.brandl.games.maze.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line (all by default) with
+ * the gc profiler attached, so every run reports throughput and allocation
+ * rate side by side.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException,
+			CommandLineOptionException {
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,47 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Measures only the longest path phase on an already generated maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LongestPathBenchmark {
+
+	@Param({ "20", "100", "300" })
+	private int size;
+
+	private MazeGenerator generator;
+
+	@Setup
+	public void setUp() {
+		generator = new MazeGenerator(new Board<Section>(size, size), 4711);
+		generator.generate();
+	}
+
+	@Benchmark
+	public Path findLongestPath() {
+		return generator.findLongestPath();
+	}
+
+}
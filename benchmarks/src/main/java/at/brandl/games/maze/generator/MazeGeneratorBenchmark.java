@@ -0,0 +1,54 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MazeGeneratorBenchmark {
+
+	@Param({ "20", "100", "300" })
+	private int size;
+
+	@Param({ "5", "15", "100" })
+	private int averageNumberOfStepsToNextBranch;
+
+	private SplitMixRandom seeds;
+
+	/**
+	 * Every fork generates the same sequence of mazes.
+	 */
+	@Setup
+	public void setUp() {
+		seeds = new SplitMixRandom(4711);
+	}
+
+	@Benchmark
+	public Board<Section> generate() {
+		Board<Section> board = new Board<Section>(size, size);
+		MazeGenerator generator = new MazeGenerator(board, seeds.nextLong());
+		generator
+				.setAverageNumberOfStepsToNextBranch(averageNumberOfStepsToNextBranch);
+		generator.generate();
+		return board;
+	}
+
+}
@@ -0,0 +1,55 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Compare with {@link MazeGeneratorBenchmark} to see the speedup of the
+ * tiled generation on the cores of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParallelMazeGeneratorBenchmark {
+
+	@Param({ "300", "1000", "2000" })
+	private int size;
+
+	@Param({ "64", "256" })
+	private int tileSize;
+
+	private SplitMixRandom seeds;
+
+	@Setup
+	public void setUp() {
+		seeds = new SplitMixRandom(4711);
+	}
+
+	@Benchmark
+	public Board<Section> generate() {
+		Board<Section> board = new Board<Section>(size, size);
+		ParallelMazeGenerator generator = new ParallelMazeGenerator(board,
+				seeds.nextLong());
+		generator.setTileSize(tileSize);
+		generator.generate();
+		return board;
+	}
+
+}
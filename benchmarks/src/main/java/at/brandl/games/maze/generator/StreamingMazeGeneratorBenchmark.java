@@ -0,0 +1,51 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StreamingMazeGeneratorBenchmark {
+
+	@Param({ "100", "1000" })
+	private int width;
+
+	@Param({ "1000", "10000" })
+	private int height;
+
+	private SplitMixRandom seeds;
+
+	@Setup
+	public void setUp() {
+		seeds = new SplitMixRandom(4711);
+	}
+
+	@Benchmark
+	public void generate(final Blackhole blackhole) {
+		new StreamingMazeGenerator(width, height, seeds.nextLong())
+				.generate(new RowListener() {
+					public void rowFinished(int row, byte[] passages) {
+						blackhole.consume(passages);
+					}
+				});
+	}
+
+}
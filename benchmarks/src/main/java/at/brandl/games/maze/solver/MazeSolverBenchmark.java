@@ -0,0 +1,71 @@
+package at.brandl.games.maze.solver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.MazeGenerator;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.solver.MazeSolver.Algorithm;
+
+/**
+ * Measures queries between random cells of an already generated maze. Run
+ * with the GC profiler to see that queries do not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MazeSolverBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "20", "100", "300" })
+	private int size;
+
+	@Param
+	private Algorithm algorithm;
+
+	private MazeSolver solver;
+	private int[] path;
+	private int[] from;
+	private int[] to;
+	private int query;
+
+	@Setup
+	public void setUp() {
+		Board<Section> board = new Board<Section>(size, size);
+		new MazeGenerator(board, 4711).generate();
+		solver = algorithm.create(board);
+		path = new int[board.getSize()];
+
+		Random random = new Random(4711);
+		from = new int[QUERIES];
+		to = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			from[i] = random.nextInt(board.getSize());
+			to[i] = random.nextInt(board.getSize());
+		}
+	}
+
+	@Benchmark
+	public int solve() {
+		int i = query++ & QUERIES - 1;
+		return solver.solve(from[i], to[i], path);
+	}
+
+}
@@ -6,20 +6,40 @@ import static at.brandl.games.commons.Orientation.SOUTH;
 import static at.brandl.games.commons.Orientation.WEST;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
+/**
+ * A rectangular board of fields stored row by row in a single array.
+ * Neighbours are resolved by index arithmetic and the passages between
+ * neighbouring fields as well as the visited flag are packed into one byte
+ * per field.
+ */
 public class Board<T extends FieldContent<T>> {
 
+	private static final int PASSAGES = NORTH.getMask() | EAST.getMask()
+			| SOUTH.getMask() | WEST.getMask();
+	private static final int VISITED = 1 << 4;
+	private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+	/**
+	 * The next step of a field without one, i.e. the end.
+	 */
+	public static final byte NO_STEP = -1;
+
 	public static class FieldNotFoundException extends RuntimeException {
 
 		public FieldNotFoundException(int row, int column) {
 			super("No field with row " + row + " and column " + column + ".");
 		}
 
+		public FieldNotFoundException(int index) {
+			super("No field with index " + index + ".");
+		}
+
 		private static final long serialVersionUID = 9029363192147747391L;
 
 	}
@@ -32,23 +52,25 @@ public class Board<T extends FieldContent<T>> {
 
 	public static class Field<T extends FieldContent<T>> {
 
-		private final Map<Orientation, Board.Field<T>> neighbours = new HashMap<Orientation, Board.Field<T>>();
-		private final int row;
-		private final int column;
+		private final Board<T> board;
+		private final int index;
 		private T content;
-		private boolean visited;
 
 		public boolean isVisited() {
-			return visited;
+			return (board.cells[index] & VISITED) != 0;
 		}
 
 		public void setVisited(boolean visited) {
-			this.visited = visited;
+			if (visited) {
+				board.cells[index] |= VISITED;
+			} else {
+				board.cells[index] &= ~VISITED;
+			}
 		}
 
-		private Field(int row, int column) {
-			this.row = row;
-			this.column = column;
+		private Field(Board<T> board, int index) {
+			this.board = board;
+			this.index = index;
 		}
 
 		public boolean isEmpty() {
@@ -59,6 +81,10 @@ public class Board<T extends FieldContent<T>> {
 			return content;
 		}
 
+		/**
+		 * Removes the content only, the passages are those of the section
+		 * graph and cleared with the whole {@link Board#clear() board}.
+		 */
 		public void clear() {
 			content = null;
 		}
@@ -78,15 +104,31 @@ public class Board<T extends FieldContent<T>> {
 		}
 
 		public int getRow() {
-			return row;
+			return index / board.width;
 		}
 
 		public int getColumn() {
-			return column;
+			return index % board.width;
 		}
 
-		public Map<Orientation, Field<T>> getNeighbours() {
+		public int getIndex() {
+			return index;
+		}
 
+		public Field<T> getNeighbour(Orientation orientation) {
+			int neighbour = board.getNeighbourIndex(index, orientation);
+			return neighbour < 0 ? null : board.fields[neighbour];
+		}
+
+		public Map<Orientation, Field<T>> getNeighbours() {
+			Map<Orientation, Field<T>> neighbours = new EnumMap<Orientation, Field<T>>(
+					Orientation.class);
+			for (Orientation orientation : ORIENTATIONS) {
+				Field<T> neighbour = getNeighbour(orientation);
+				if (neighbour != null) {
+					neighbours.put(orientation, neighbour);
+				}
+			}
 			return neighbours;
 		}
 
@@ -99,75 +141,132 @@ public class Board<T extends FieldContent<T>> {
 		}
 
 		private Map<Orientation, Field<T>> getNeighbours(boolean empty) {
-			Map<Orientation, Field<T>> nonEmptyNeighbours = new HashMap<Orientation, Board.Field<T>>();
-			for (Entry<Orientation, Field<T>> entry : neighbours.entrySet()) {
+			Map<Orientation, Field<T>> neighbours = new EnumMap<Orientation, Field<T>>(
+					Orientation.class);
+			for (Orientation orientation : ORIENTATIONS) {
+				Field<T> neighbour = getNeighbour(orientation);
+				if (neighbour != null && neighbour.isEmpty() == empty) {
+					neighbours.put(orientation, neighbour);
+				}
+			}
+			return neighbours;
+		}
+
+		/**
+		 * @return the {@link Orientation#getMask() masks} of all empty
+		 *         neighbours combined, without allocating a map.
+		 */
+		public int getEmptyNeighbourMask() {
+			return getNeighbourMask(true);
+		}
 
-				if (entry.getValue().isEmpty() == empty) {
-					nonEmptyNeighbours.put(entry.getKey(), entry.getValue());
+		/**
+		 * @return the {@link Orientation#getMask() masks} of all non empty
+		 *         neighbours combined, without allocating a map.
+		 */
+		public int getNonEmptyNeighbourMask() {
+			return getNeighbourMask(false);
+		}
+
+		private int getNeighbourMask(boolean empty) {
+			int mask = 0;
+			for (Orientation orientation : ORIENTATIONS) {
+				int neighbour = board.getNeighbourIndex(index, orientation);
+				if (neighbour >= 0
+						&& board.fields[neighbour].isEmpty() == empty) {
+					mask |= orientation.getMask();
 				}
 			}
-			return nonEmptyNeighbours;
+			return mask;
+		}
+
+		public boolean hasPassage(Orientation orientation) {
+			return (board.cells[index] & orientation.getMask()) != 0;
 		}
 
-		private void addNeighbour(Orientation orientation, Field<T> field) {
-			Field<T> previous = neighbours.put(orientation, field);
+		public int getPassages() {
+			return board.cells[index] & PASSAGES;
+		}
 
-			if (previous != null) {
+		public void openPassage(Orientation orientation) {
+			int neighbour = board.getNeighbourIndex(index, orientation);
+			if (neighbour < 0) {
 				throw new IllegalBoardExcption();
 			}
-			field.neighbours.put(orientation.opposite(), this);
-
+			board.cells[index] |= orientation.getMask();
+			board.cells[neighbour] |= orientation.opposite().getMask();
 		}
 
 	}
 
-	private final Map<Integer, Map<Integer, Field<T>>> fields = new HashMap<Integer, Map<Integer, Field<T>>>();
+	private final Field<T>[] fields;
+	private final byte[] cells;
 	private final int width;
 	private final int height;
 	private Field<T> start;
 	private Field<T> end;
+	private int[] solutionPath;
+	private byte[] nextSteps;
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Board(int width, int height) {
 
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("board must not be empty");
+		}
+		if ((long) width * height > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("board " + width + "x" + height
+					+ " too large");
+		}
 		this.width = width;
 		this.height = height;
-		for (int row = 0; row < height; row++) {
-			Map<Integer, Field<T>> rowValues = new HashMap<Integer, Board.Field<T>>();
-			for (int column = 0; column < width; column++) {
-				Field<T> field = new Field<T>(row, column);
-				if (column > 0) {
-					field.addNeighbour(WEST, rowValues.get(column - 1));
-				}
-				if (row > 0) {
-					field.addNeighbour(NORTH, fields.get(row - 1).get(column));
-				}
-				rowValues.put(column, field);
-			}
-			fields.put(row, rowValues);
+		fields = new Field[width * height];
+		cells = new byte[fields.length];
+		for (int index = 0; index < fields.length; index++) {
+			fields[index] = new Field<T>(this, index);
 		}
 	}
 
 	public Field<T> getField(int row, int column) {
-		Field<T> field;
-		try {
-			field = fields.get(row).get(column);
-		} catch (NullPointerException e) {
-			field = null;
-		}
-		if (field == null) {
+		if (row < 0 || row >= height || column < 0 || column >= width) {
 			throw new FieldNotFoundException(row, column);
 		}
-		return field;
+		return fields[row * width + column];
+	}
+
+	public Field<T> getField(int index) {
+		if (index < 0 || index >= fields.length) {
+			throw new FieldNotFoundException(index);
+		}
+		return fields[index];
+	}
+
+	/**
+	 * @return the index of the neighbour of the field with the given index in
+	 *         the given orientation or -1 if the field lies on that border.
+	 */
+	public int getNeighbourIndex(int index, Orientation orientation) {
+		switch (orientation) {
+		case NORTH:
+			return index < width ? -1 : index - width;
+		case EAST:
+			return index % width == width - 1 ? -1 : index + 1;
+		case SOUTH:
+			return index >= fields.length - width ? -1 : index + width;
+		case WEST:
+			return index % width == 0 ? -1 : index - 1;
+		default:
+			throw new AssertionError("unknown Orientation " + orientation);
+		}
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder board = new StringBuilder();
-		for (int i = 0; i < fields.size(); i++) {
-			Map<Integer, Field<T>> row = fields.get(i);
-			for (int j = 0; j < row.size(); j++) {
+		for (int row = 0; row < height; row++) {
+			for (int column = 0; column < width; column++) {
 				board.append("|");
-				board.append(row.get(j));
+				board.append(fields[row * width + column]);
 			}
 			board.append("|\n");
 		}
@@ -180,11 +279,11 @@ public class Board<T extends FieldContent<T>> {
 			borders.add(NORTH);
 		}
 
-		if (field.getColumn() == fields.get(0).size() - 1) {
+		if (field.getColumn() == width - 1) {
 			borders.add(EAST);
 		}
 
-		if (field.getRow() == fields.size() - 1) {
+		if (field.getRow() == height - 1) {
 			borders.add(SOUTH);
 		}
 
@@ -195,32 +294,25 @@ public class Board<T extends FieldContent<T>> {
 	}
 
 	public void clear() {
-		for (Map<Integer, Field<T>> row : fields.values()) {
-			for (Field<T> field : row.values()) {
-				field.clear();
-			}
+		for (Field<T> field : fields) {
+			field.content = null;
 		}
+		Arrays.fill(cells, (byte) 0);
+		solutionPath = null;
+		nextSteps = null;
 	}
 
 	public Collection<Field<T>> getFields() {
 
-		Collection<Field<T>> allFields = new LinkedList<Board.Field<T>>();
-		for (Map<Integer, Field<T>> row : fields.values()) {
-			for (Field<T> field : row.values()) {
-				allFields.add(field);
-			}
-		}
-		return allFields;
+		return Collections.unmodifiableList(Arrays.asList(fields));
 	}
 
 	public Collection<Field<T>> getEmptyFields() {
 
-		Collection<Field<T>> emptyFields = new LinkedList<Board.Field<T>>();
-		for (Map<Integer, Field<T>> row : fields.values()) {
-			for (Field<T> field : row.values()) {
-				if (field.isEmpty()) {
-					emptyFields.add(field);
-				}
+		Collection<Field<T>> emptyFields = new ArrayList<Board.Field<T>>();
+		for (Field<T> field : fields) {
+			if (field.isEmpty()) {
+				emptyFields.add(field);
 			}
 		}
 		return emptyFields;
@@ -242,6 +334,48 @@ public class Board<T extends FieldContent<T>> {
 		this.end = end;
 	}
 
+	/**
+	 * @return the indices of the fields from start to end or
+	 *         <code>null</code> if no solution was set.
+	 */
+	public int[] getSolutionPath() {
+		return solutionPath;
+	}
+
+	/**
+	 * @return the ordinal of the {@link Orientation} of the next step toward
+	 *         the end for every field, {@link #NO_STEP} at the end, or
+	 *         <code>null</code> if no solution was set.
+	 */
+	public byte[] getNextSteps() {
+		return nextSteps;
+	}
+
+	/**
+	 * @return the orientation of the next step toward the end or
+	 *         <code>null</code> at the end.
+	 * @throws IllegalStateException
+	 *             if no solution was set.
+	 */
+	public Orientation getNextStep(int index) {
+		if (nextSteps == null) {
+			throw new IllegalStateException("no solution set");
+		}
+		if (index < 0 || index >= fields.length) {
+			throw new FieldNotFoundException(index);
+		}
+		byte step = nextSteps[index];
+		return step == NO_STEP ? null : ORIENTATIONS[step];
+	}
+
+	/**
+	 * Sets the solution, which is shared and not copied.
+	 */
+	public void setSolution(int[] solutionPath, byte[] nextSteps) {
+		this.solutionPath = solutionPath;
+		this.nextSteps = nextSteps;
+	}
+
 	public int getWidth() {
 		return width;
 	}
@@ -250,5 +384,8 @@ public class Board<T extends FieldContent<T>> {
 		return height;
 	}
 
-	
+	public int getSize() {
+		return fields.length;
+	}
+
 }
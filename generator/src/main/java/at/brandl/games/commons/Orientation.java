@@ -3,6 +3,8 @@ package at.brandl.games.commons;
 public enum Orientation {
 	NORTH, EAST, SOUTH, WEST;
 
+	private static final Orientation[] VALUES = values();
+
 	public Orientation turn(Direction direction) {
 		switch (this) {
 		case NORTH:
@@ -46,6 +48,18 @@ public enum Orientation {
 		}
 	}
 	
+	public int getMask() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * @return the first orientation contained in the given combination of
+	 *         {@link #getMask() masks} or <code>null</code> if it is empty.
+	 */
+	public static Orientation first(int mask) {
+		return mask == 0 ? null : VALUES[Integer.numberOfTrailingZeros(mask)];
+	}
+
 	public Orientation opposite() {
 		switch (this) {
 		case NORTH:
@@ -0,0 +1,180 @@
+package at.brandl.games.maze.generator;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+
+import at.brandl.games.maze.generator.MazeGenerator.Phase;
+
+/**
+ * Records the wall time, the placed cells and, where the virtual machine
+ * can tell, the allocated bytes of every phase of a generation, as well as
+ * the branches spawned, the holes filled and the dead ends found. A
+ * generator without stats records nothing.
+ * <p>
+ * Allocation is read from the HotSpot thread bean by reflection, as
+ * neither <code>com.sun.management</code> nor
+ * <code>java.lang.management</code> exists on Android.
+ */
+public class GenerationStats {
+
+	private static final Allocation ALLOCATION = Allocation.create();
+
+	private static class Allocation {
+
+		private final Object threadBean;
+		private final Method getThreadAllocatedBytes;
+
+		private Allocation(Object threadBean, Method getThreadAllocatedBytes) {
+			this.threadBean = threadBean;
+			this.getThreadAllocatedBytes = getThreadAllocatedBytes;
+		}
+
+		private static Allocation create() {
+			try {
+				Object threadBean = Class
+						.forName("java.lang.management.ManagementFactory")
+						.getMethod("getThreadMXBean").invoke(null);
+				Method getThreadAllocatedBytes = Class.forName(
+						"com.sun.management.ThreadMXBean").getMethod(
+						"getThreadAllocatedBytes", long.class);
+				Allocation allocation = new Allocation(threadBean,
+						getThreadAllocatedBytes);
+				return allocation.getAllocatedBytes() < 0 ? null : allocation;
+			} catch (Exception | LinkageError e) {
+				return null;
+			}
+		}
+
+		/**
+		 * @return the bytes allocated by the current thread or -1 if they
+		 *         are not measured.
+		 */
+		private long getAllocatedBytes() {
+			try {
+				return (Long) getThreadAllocatedBytes.invoke(threadBean, Thread
+						.currentThread().getId());
+			} catch (Exception e) {
+				return -1;
+			}
+		}
+	}
+
+	private final Map<Phase, Long> wallNanos = new EnumMap<>(Phase.class);
+	private final Map<Phase, Integer> cellsPlaced = new EnumMap<>(Phase.class);
+	private final Map<Phase, Long> allocatedBytes = new EnumMap<>(Phase.class);
+	private int branches;
+	private int holes;
+	private int deadEnds;
+
+	private long phaseStart;
+	private long phaseAllocationStart;
+
+	/**
+	 * @return whether the allocated bytes are measured on this virtual
+	 *         machine.
+	 */
+	public static boolean isAllocationSupported() {
+		return ALLOCATION != null;
+	}
+
+	/**
+	 * @return the nanoseconds the phase took or 0 if it was not run.
+	 */
+	public long getWallNanos(Phase phase) {
+		Long nanos = wallNanos.get(phase);
+		return nanos == null ? 0 : nanos;
+	}
+
+	public long getTotalWallNanos() {
+		long total = 0;
+		for (long nanos : wallNanos.values()) {
+			total += nanos;
+		}
+		return total;
+	}
+
+	public int getCellsPlaced(Phase phase) {
+		Integer cells = cellsPlaced.get(phase);
+		return cells == null ? 0 : cells;
+	}
+
+	/**
+	 * @return the bytes allocated by the generating thread during the phase
+	 *         or -1 if they are not measured.
+	 */
+	public long getAllocatedBytes(Phase phase) {
+		Long bytes = allocatedBytes.get(phase);
+		return bytes == null ? -1 : bytes;
+	}
+
+	/**
+	 * @return the number of branches spawned from a path, not counting the
+	 *         paths started to fill holes.
+	 */
+	public int getBranches() {
+		return branches;
+	}
+
+	/**
+	 * @return the number of empty fields left by the branches, where the
+	 *         fill phase started a new path.
+	 */
+	public int getHoles() {
+		return holes;
+	}
+
+	/**
+	 * @return the number of dead ends, the candidates for start and end.
+	 */
+	public int getDeadEnds() {
+		return deadEnds;
+	}
+
+	void startPhase() {
+		if (ALLOCATION != null) {
+			phaseAllocationStart = ALLOCATION.getAllocatedBytes();
+		}
+		phaseStart = System.nanoTime();
+	}
+
+	void finishPhase(Phase phase, int cells) {
+		wallNanos.put(phase, System.nanoTime() - phaseStart);
+		cellsPlaced.put(phase, cells);
+		if (ALLOCATION != null) {
+			allocatedBytes.put(phase, ALLOCATION.getAllocatedBytes()
+					- phaseAllocationStart);
+		}
+	}
+
+	void setBranches(int branches) {
+		this.branches = branches;
+	}
+
+	void setHoles(int holes) {
+		this.holes = holes;
+	}
+
+	void setDeadEnds(int deadEnds) {
+		this.deadEnds = deadEnds;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stats = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			stats.append(phase).append(": ")
+					.append(getWallNanos(phase) / 1000).append(" us, ")
+					.append(getCellsPlaced(phase)).append(" cells");
+			if (isAllocationSupported()) {
+				stats.append(", ").append(getAllocatedBytes(phase))
+						.append(" bytes");
+			}
+			stats.append("\n");
+		}
+		stats.append("branches: ").append(branches).append(", holes: ")
+				.append(holes).append(", dead ends: ").append(deadEnds);
+		return stats.toString();
+	}
+
+}
@@ -0,0 +1,233 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.SOUTH;
+import static at.brandl.games.commons.Orientation.WEST;
+import static at.brandl.games.maze.generator.MazeFormat.BITS_PER_FIELD;
+import static at.brandl.games.maze.generator.MazeFormat.EAST_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.FIELDS_PER_BYTE;
+import static at.brandl.games.maze.generator.MazeFormat.HEADER_SIZE;
+import static at.brandl.games.maze.generator.MazeFormat.MAGIC;
+import static at.brandl.games.maze.generator.MazeFormat.SOUTH_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.VERSION;
+import static at.brandl.games.maze.generator.Path.Target.END;
+import static at.brandl.games.maze.generator.Path.Target.START;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * A maze in the binary format of {@link MazeWriter}, queried in place
+ * without creating an object per field. {@link #open(File)} memory maps a
+ * file, so opening takes the same time for every size of maze and only the
+ * pages of the fields queried are read from disk. Data larger than a single
+ * buffer is split into chunks.
+ */
+public class MappedMaze {
+
+	public static class IllegalMazeFileException extends IOException {
+
+		private static final long serialVersionUID = -2153512771497520473L;
+
+		public IllegalMazeFileException(String message) {
+			super(message);
+		}
+
+	}
+
+	static final int CHUNK_BITS = 30;
+	static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+	final ByteBuffer[] chunks;
+	final int width;
+	final int height;
+	int startRow;
+	int startColumn;
+	int endRow;
+	int endColumn;
+
+	MappedMaze(ByteBuffer[] chunks, int width, int height, int startRow,
+			int startColumn, int endRow, int endColumn) {
+		this.chunks = chunks;
+		this.width = width;
+		this.height = height;
+		this.startRow = startRow;
+		this.startColumn = startColumn;
+		this.endRow = endRow;
+		this.endColumn = endColumn;
+	}
+
+	public static MappedMaze open(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					throw new IllegalMazeFileException("incomplete header");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IllegalMazeFileException("not a maze file");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IllegalMazeFileException("unsupported version "
+						+ version);
+			}
+			int width = header.getInt();
+			int height = header.getInt();
+			if (width <= 0 || height <= 0) {
+				throw new IllegalMazeFileException("illegal size " + width
+						+ "x" + height);
+			}
+			int startRow = header.getInt();
+			int startColumn = header.getInt();
+			int endRow = header.getInt();
+			int endColumn = header.getInt();
+			if (!contains(width, height, startRow, startColumn)
+					|| !contains(width, height, endRow, endColumn)) {
+				throw new IllegalMazeFileException(
+						"start or end outside of maze");
+			}
+
+			long dataSize = MazeFormat.getDataSize(width, height);
+			if (channel.size() < HEADER_SIZE + dataSize) {
+				throw new IllegalMazeFileException("incomplete maze");
+			}
+			return new MappedMaze(map(channel, MapMode.READ_ONLY, dataSize),
+					width, height, startRow, startColumn, endRow, endColumn);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	static ByteBuffer[] map(FileChannel channel, MapMode mode, long dataSize)
+			throws IOException {
+		ByteBuffer[] chunks = new ByteBuffer[getChunkCount(dataSize)];
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			long position = chunk * CHUNK_SIZE;
+			chunks[chunk] = channel.map(mode, HEADER_SIZE + position,
+					Math.min(CHUNK_SIZE, dataSize - position));
+		}
+		return chunks;
+	}
+
+	private static boolean contains(int width, int height, int row,
+			int column) {
+		return row >= 0 && row < height && column >= 0 && column < width;
+	}
+
+	static int getChunkCount(long dataSize) {
+		return (int) ((dataSize + CHUNK_SIZE - 1) / CHUNK_SIZE);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getStartRow() {
+		return startRow;
+	}
+
+	public int getStartColumn() {
+		return startColumn;
+	}
+
+	public int getEndRow() {
+		return endRow;
+	}
+
+	public int getEndColumn() {
+		return endColumn;
+	}
+
+	public boolean hasPassage(int row, int column, Orientation orientation) {
+		return (getPassages(row, column) & orientation.getMask()) != 0;
+	}
+
+	/**
+	 * @return the {@link Orientation#getMask() masks} of all passages of the
+	 *         field combined, like {@link Field#getPassages()}.
+	 */
+	public int getPassages(int row, int column) {
+		checkField(row, column);
+		long index = (long) row * width + column;
+		int bits = getBits(index);
+		int passages = 0;
+		if ((bits & EAST_BIT) != 0) {
+			passages |= EAST.getMask();
+		}
+		if ((bits & SOUTH_BIT) != 0) {
+			passages |= SOUTH.getMask();
+		}
+		if (column > 0 && (getBits(index - 1) & EAST_BIT) != 0) {
+			passages |= WEST.getMask();
+		}
+		if (row > 0 && (getBits(index - width) & SOUTH_BIT) != 0) {
+			passages |= NORTH.getMask();
+		}
+		return passages;
+	}
+
+	/**
+	 * Builds a board with connected sections and start and end set, as
+	 * {@link MazeGenerator} leaves it.
+	 */
+	public Board<Section> toBoard() {
+		Board<Section> board = new Board<Section>(width, height);
+		for (int row = 0; row < height; row++) {
+			for (int column = 0; column < width; column++) {
+				Field<Section> field = board.getField(row, column);
+				Section section = new Section();
+				field.setContent(section);
+				long index = (long) row * width + column;
+				if (column > 0 && (getBits(index - 1) & EAST_BIT) != 0) {
+					section.addNeighbour(WEST, field.getNeighbour(WEST)
+							.getContent());
+				}
+				if (row > 0 && (getBits(index - width) & SOUTH_BIT) != 0) {
+					section.addNeighbour(NORTH, field.getNeighbour(NORTH)
+							.getContent());
+				}
+			}
+		}
+
+		Field<Section> start = board.getField(startRow, startColumn);
+		start.getContent().setTarget(START, start.getContent());
+		board.setStart(start);
+		Field<Section> end = board.getField(endRow, endColumn);
+		end.getContent().setTarget(END, end.getContent());
+		board.setEnd(end);
+		return board;
+	}
+
+	void checkField(int row, int column) {
+		if (row < 0 || row >= height || column < 0 || column >= width) {
+			throw new Board.FieldNotFoundException(row, column);
+		}
+	}
+
+	int getBits(long index) {
+		long position = index / FIELDS_PER_BYTE;
+		int value = chunks[(int) (position >>> CHUNK_BITS)]
+				.get((int) (position & (CHUNK_SIZE - 1)));
+		return (value >>> ((int) (index % FIELDS_PER_BYTE) * BITS_PER_FIELD)) & 3;
+	}
+
+}
@@ -0,0 +1,182 @@
+package at.brandl.games.maze.generator;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Generates many mazes in parallel on an executor. The mazes are returned
+ * in the order of their requests, and only a limited number of them is
+ * generated ahead of the consumer, so memory stays flat however long the
+ * batch is.
+ * <p>
+ * Any executor will do, e.g. one running on virtual threads on newer JDKs,
+ * though the generation is bound by the CPU and gains nothing from more
+ * threads than cores.
+ */
+public class MazeBatch {
+
+	public static class MazeBatchException extends RuntimeException {
+
+		private static final long serialVersionUID = 3907545960426217339L;
+
+		public MazeBatchException(Throwable cause) {
+			super(cause);
+		}
+
+	}
+
+	/**
+	 * A maze to generate, fully defined by its spec and seed.
+	 */
+	public static final class Request {
+
+		private final MazeSpec spec;
+		private final long seed;
+
+		public Request(MazeSpec spec, long seed) {
+			this.spec = spec;
+			this.seed = seed;
+		}
+
+		public MazeSpec getSpec() {
+			return spec;
+		}
+
+		public long getSeed() {
+			return seed;
+		}
+
+	}
+
+	/**
+	 * The mazes of a batch in the order of their requests. Closing the
+	 * results cancels the mazes generated ahead.
+	 */
+	public class Results implements Iterator<Board<Section>>, Closeable {
+
+		private final Iterator<Request> requests;
+		private final Queue<Future<Board<Section>>> inFlight = new ArrayDeque<>();
+		private boolean closed;
+
+		private Results(Iterator<Request> requests) {
+			this.requests = requests;
+			fill();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !inFlight.isEmpty();
+		}
+
+		/**
+		 * Waits for the next maze and starts the generation of another one.
+		 *
+		 * @throws MazeBatchException
+		 *             if the generation failed or the thread was
+		 *             interrupted.
+		 */
+		@Override
+		public Board<Section> next() {
+			Future<Board<Section>> next = inFlight.poll();
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			try {
+				return next.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MazeBatchException(e);
+			} catch (ExecutionException e) {
+				throw new MazeBatchException(e.getCause());
+			} finally {
+				fill();
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			Future<Board<Section>> future;
+			closed = true;
+			while ((future = inFlight.poll()) != null) {
+				future.cancel(true);
+			}
+		}
+
+		private void fill() {
+			while (!closed && inFlight.size() < maxInFlight
+					&& requests.hasNext()) {
+				FutureTask<Board<Section>> task = new FutureTask<>(
+						new Generation(requests.next()));
+				executor.execute(task);
+				inFlight.add(task);
+			}
+		}
+	}
+
+	private static class Generation implements Callable<Board<Section>> {
+
+		private final Request request;
+
+		private Generation(Request request) {
+			this.request = request;
+		}
+
+		@Override
+		public Board<Section> call() {
+			return request.getSpec().generate(request.getSeed(), null);
+		}
+	}
+
+	private final Executor executor;
+	private final int maxInFlight;
+
+	/**
+	 * Generates on a shared pool with a thread per core, two mazes per core
+	 * ahead of the consumer.
+	 */
+	public MazeBatch() {
+		this(SharedPool.POOL, 2 * SharedPool.POOL.getParallelism());
+	}
+
+	/**
+	 * @param maxInFlight
+	 *            the number of mazes generated ahead of the consumer.
+	 */
+	public MazeBatch(Executor executor, int maxInFlight) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException(
+					"at least one maze must be in flight");
+		}
+		this.executor = executor;
+		this.maxInFlight = maxInFlight;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Starts generating the requested mazes. The requests are read as the
+	 * mazes are consumed, so they may be created on the fly.
+	 */
+	public Results generate(Iterable<Request> requests) {
+		return new Results(requests.iterator());
+	}
+
+}
@@ -0,0 +1,32 @@
+package at.brandl.games.maze.generator;
+
+/**
+ * Layout of the binary maze file shared by {@link MazeWriter} and
+ * {@link MappedMaze}.
+ * <p>
+ * The file starts with a header of eight big endian ints: the magic
+ * number, the version, width, height, start row, start column, end row and
+ * end column. It is followed by two bits for every field in row major
+ * order, four fields to a byte starting with the lowest bits. The first bit
+ * is set if there is a passage to the east, the second if there is one to
+ * the south; passages to the north and west are those of the neighbours.
+ */
+final class MazeFormat {
+
+	static final int MAGIC = 0x4d415a45;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8 * 4;
+
+	static final int EAST_BIT = 1;
+	static final int SOUTH_BIT = 2;
+	static final int BITS_PER_FIELD = 2;
+	static final int FIELDS_PER_BYTE = 8 / BITS_PER_FIELD;
+
+	private MazeFormat() {
+	}
+
+	static long getDataSize(int width, int height) {
+		return ((long) width * height + FIELDS_PER_BYTE - 1) / FIELDS_PER_BYTE;
+	}
+
+}
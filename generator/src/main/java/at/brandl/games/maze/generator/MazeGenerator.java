@@ -8,21 +8,20 @@ import static at.brandl.games.maze.generator.Path.Target.START;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import at.brandl.games.commons.Board;
 import at.brandl.games.commons.Board.Field;
 import at.brandl.games.commons.Direction;
 import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeTracer.Tracing;
 import at.brandl.games.maze.generator.Path.Section;
 
 public class MazeGenerator {
@@ -30,26 +29,91 @@ public class MazeGenerator {
 	public static interface ProgressListener {
 		public void updateProgress(int progress);
 	}
-	
+
+	public static interface PhaseListener {
+		public void phaseStarted(Phase phase);
+	}
+
+	/**
+	 * The phases of the generation in the order they are run. The solution
+	 * path grows together with the first branches.
+	 */
+	public static enum Phase {
+		BRANCHES, FILL, LONGEST_PATH
+	}
+
+	public static class GenerationCancelledException extends RuntimeException {
+
+		private static final long serialVersionUID = -2236640920562934911L;
+
+		public GenerationCancelledException() {
+			super("generation cancelled");
+		}
+
+	}
+
+	/**
+	 * The share of the overall progress taken by creating the tree, the rest
+	 * is taken by the search for the longest path.
+	 */
+	static final int TREE_WEIGHT = 75;
+
+	private static final MazeTracer TRACER = Tracing.getTracer();
+
 	private int averageNumberOfStepsToNextBranch = 15;
 
+	private static final Orientation[] ORIENTATIONS = Orientation.values();
+
 	private final List<Direction> turns = Arrays.asList(LEFT, AHEAD, RIGHT);
-	private final Map<Path, Integer> pathLengths = new HashMap<>();
-	private final HashSet<Section> endpoints = new HashSet<>();
 
 	private final Board<Section> board;
+	private final long seed;
 	private final Random random;
+	private int[] frontier;
+	private BitSet inFrontier;
+	private int frontierSize;
+	private byte[] nextSteps;
 	private Field<Section> start;
 	private Field<Section> end;
 	
 	private volatile int progressPcnt = 0;
+	private volatile Phase phase;
+	private volatile boolean cancelled;
+	private long progressInterval;
+	private long lastNotification;
+	private int progressBase;
+	private int progressWeight;
+	private long progressTotal;
+	private long work;
+	private long nextProgressWork;
+
+	private GenerationStats stats;
+	private Object phaseTrace;
+	private int placed;
+	private int branchCount;
+	private int holes;
+	private int deadEnds;
 
 	private Collection<ProgressListener> listeners = new ArrayList<>();
+	private Collection<PhaseListener> phaseListeners = new ArrayList<>();
 
 	public MazeGenerator(Board<Section> board) {
+		this(board, SplitMixRandom.createSeed());
+	}
+
+	/**
+	 * The generated maze is fully defined by the size of the board, the
+	 * average number of steps to the next branch and the seed.
+	 */
+	public MazeGenerator(Board<Section> board, long seed) {
 		this.board = board;
+		this.seed = seed;
 		start = board.getField(0, 0);
-		random = new Random(System.currentTimeMillis());
+		random = new SplitMixRandom(seed);
+	}
+
+	public long getSeed() {
+		return seed;
 	}
 
 	public int getAverageNumberOfStepsToNextBranch() {
@@ -71,24 +135,108 @@ public class MazeGenerator {
 
 	public void generate() {
 
-		Collection<Path> branches = createSolutionPath();
+		branchCount = 0;
+		holes = 0;
+		deadEnds = 0;
+
+		Object generation = TRACER == null ? null : TRACER.startGeneration(
+				board.getWidth(), board.getHeight(), seed);
 
-		createBranches(branches);
+		boolean finished = false;
+		try {
+			createTree();
 
-		fillEmptyFields(branches);
+			setLongestPath();
+			finished = true;
+		} finally {
+			if (generation != null) {
+				TRACER.endGeneration(generation, !finished);
+			}
+		}
+	}
+
+	/**
+	 * Fills the whole board with one spanning tree of sections without
+	 * choosing start and end.
+	 */
+	void createTree() {
+
+		startPhase(Phase.BRANCHES);
+		Collection<Path> branches;
+		boolean finished = false;
+		try {
+			frontier = new int[board.getSize()];
+			inFrontier = new BitSet(board.getSize());
+			// every field is placed exactly once
+			startProgress(0, TREE_WEIGHT, board.getSize());
+
+			branches = createSolutionPath();
+
+			createBranches(branches);
+			finished = true;
+		} finally {
+			finishPhase(finished);
+		}
 
-		setLongestPath();
+		startPhase(Phase.FILL);
+		finished = false;
+		try {
+			fillEmptyFields(branches);
+			finished = true;
+		} finally {
+			finishPhase(finished);
+		}
+
+	}
+
+	/**
+	 * Stops the generation running on another thread at its next whole
+	 * percent, where it throws a {@link GenerationCancelledException}. The
+	 * board is left half done. Interrupting the generating thread stops the
+	 * generation the same way, e.g. when a future running it is cancelled.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
 
+	public boolean isCancelled() {
+		return cancelled;
 	}
 
 	public void addProgressListener(ProgressListener listener) {
-		listeners .add(listener);
+		listeners.add(listener);
 	}
-	
-	private void setLongestPath() {
-		findAllEndpoints();
+
+	public void addPhaseListener(PhaseListener listener) {
+		phaseListeners.add(listener);
+	}
+
+	/**
+	 * Records the stats of the next generation, <code>null</code> to record
+	 * none.
+	 */
+	public void setStats(GenerationStats stats) {
+		this.stats = stats;
+	}
+
+	public GenerationStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Limits the notifications of the progress listeners to one per given
+	 * interval. They are notified only of changes of whole percent in any
+	 * case, and always of the completion.
+	 */
+	public void setProgressInterval(long progressInterval, TimeUnit unit) {
+		this.progressInterval = unit.toNanos(progressInterval);
+		lastNotification = System.nanoTime() - this.progressInterval;
+	}
+
+	void setLongestPath() {
 		Path longestPath = findLongestPath();
 		setStartAndEnd(longestPath);
+		setSolution(longestPath.getLength());
 	}
 
 	private void setStartAndEnd(Path longestPath) {
@@ -103,66 +251,119 @@ public class MazeGenerator {
 		board.setEnd(end);
 	}
 
-	private Path findLongestPath() {
-		
-		int numEndpoints = endpoints.size();
-		int numPaths = numEndpoints * (numEndpoints - 1) / 2;
-		
-		Iterator<Section> iterator = endpoints.iterator();
-		Path longestPath = new Path(Orientation.NORTH, start.getContent());
-		int progress = 0;
-		while (iterator.hasNext()) {
-			Section startPoint = iterator.next();
-			iterator.remove();
-			for (Section endPoint : endpoints) {
-
-				Path path = new Path(Orientation.NORTH, startPoint, endPoint);
-				if (pathLengths.containsKey(path)) {
-					continue;
-				}
-				startPoint.setTarget(START, startPoint);
-				Section target = endPoint.getTarget(START);
-				int length = 0;
-				while (!target.equals(startPoint)) {
-					length++;
-					target = target.getTarget(START);
-				}
-				path.setLength(length);
-				if (length > longestPath.getLength()) {
-					longestPath = path;
+	/**
+	 * The generated maze is a spanning tree, so its longest path is found by
+	 * two breadth first sweeps: the cell farthest from any cell is one end of
+	 * the longest path, the cell farthest from that one is the other end. The
+	 * second sweep also records the step of every cell toward its origin.
+	 */
+	Path findLongestPath() {
+
+		startPhase(Phase.LONGEST_PATH);
+		boolean finished = false;
+		try {
+			int size = board.getSize();
+			int[] distances = new int[size];
+			int[] queue = new int[size];
+			nextSteps = new byte[size];
+			startProgress(TREE_WEIGHT, 100 - TREE_WEIGHT, 2L * size);
+			int first = findFarthest(start.getIndex(), distances, queue,
+					stats != null, null);
+			int second = findFarthest(first, distances, queue, false,
+					nextSteps);
+
+			Path longestPath = new Path(Orientation.NORTH, board.getField(
+					first).getContent(), board.getField(second).getContent());
+			longestPath.setLength(distances[second]);
+			finished = true;
+			return longestPath;
+		} finally {
+			finishPhase(finished);
+		}
+	}
+
+	/**
+	 * @param steps
+	 *            receives the ordinal of the orientation toward the origin
+	 *            for every cell, may be <code>null</code>.
+	 */
+	private int findFarthest(int origin, int[] distances, int[] queue,
+			boolean countDeadEnds, byte[] steps) {
+
+		Arrays.fill(distances, -1);
+		distances[origin] = 0;
+		if (steps != null) {
+			steps[origin] = Board.NO_STEP;
+		}
+		queue[0] = origin;
+		int head = 0;
+		int tail = 1;
+		int farthest = origin;
+		while (head < tail) {
+			int index = queue[head++];
+			Field<Section> field = board.getField(index);
+			if (countDeadEnds && Integer.bitCount(field.getPassages()) == 1) {
+				deadEnds++;
+			}
+			for (Orientation orientation : ORIENTATIONS) {
+				if (field.hasPassage(orientation)) {
+					int neighbour = board.getNeighbourIndex(index, orientation);
+					if (distances[neighbour] < 0) {
+						distances[neighbour] = distances[index] + 1;
+						queue[tail++] = neighbour;
+						if (steps != null) {
+							steps[neighbour] = (byte) orientation.opposite()
+									.ordinal();
+						}
+						if (distances[neighbour] > distances[farthest]) {
+							farthest = neighbour;
+						}
+					}
 				}
-				
-				progressPcnt = ++progress * 100 / numPaths;
-				notifyProgress(progressPcnt);
+			}
+			if (++work >= nextProgressWork) {
+				reportProgress();
 			}
 		}
-		return longestPath;
+		return farthest;
 	}
 
-	private void findAllEndpoints() {
-		for (Field<Section> field : board.getFields()) {
-			Section section = field.getContent();
-			if (section.getNeighbours().size() == 1) {
-				endpoints.add(section);
+	/**
+	 * Turns the steps toward the start into steps toward the end. Only the
+	 * cells of the solution path change, as the steps of every other cell
+	 * lead to the solution path anyway.
+	 */
+	private void setSolution(int length) {
+		int[] solutionPath = new int[length + 1];
+		int index = end.getIndex();
+		byte toEnd = Board.NO_STEP;
+		for (int i = length; i >= 0; i--) {
+			solutionPath[i] = index;
+			byte toStart = nextSteps[index];
+			nextSteps[index] = toEnd;
+			if (i > 0) {
+				Orientation orientation = ORIENTATIONS[toStart];
+				toEnd = (byte) orientation.opposite().ordinal();
+				index = board.getNeighbourIndex(index, orientation);
 			}
 		}
+		board.setSolution(solutionPath, nextSteps);
+		nextSteps = null;
 	}
 
 	private void fillEmptyFields(Collection<Path> branches) {
 
-		Iterator<Field<Section>> iterator = board.getEmptyFields().iterator();
-		while (iterator.hasNext()) {
+		while (frontierSize > 0) {
 
-			Field<Section> field = iterator.next();
-			Map<Orientation, Field<Section>> nonEmptyNeighbours = field
-					.getNonEmptyNeighbours();
-			if (!nonEmptyNeighbours.isEmpty()) {
+			Field<Section> field = board.getField(frontier[--frontierSize]);
+			if (field.isEmpty()) {
+				holes++;
 
-				Entry<Orientation, Field<Section>> neighbour = nonEmptyNeighbours
-						.entrySet().iterator().next();
-				Path path = new Path(neighbour.getKey().opposite());
-				field.setContent(path.getStart());
-				path.connect(neighbour.getKey(), neighbour.getValue()
+				Orientation orientation = Orientation.first(field
+						.getNonEmptyNeighbourMask());
+				Path path = new Path(orientation.opposite());
+				place(field, path.getStart());
+				path.connect(orientation, field.getNeighbour(orientation)
 						.getContent());
 
 				boolean advanced = false;
@@ -170,8 +371,28 @@ public class MazeGenerator {
 					advanced = advance(path, branches);
 					createBranches(branches);
 				} while (advanced);
+			}
+		}
+	}
 
-				iterator = board.getEmptyFields().iterator();
+	/**
+	 * Sets the section on the field and remembers the empty neighbours of the
+	 * field, so holes left by the branches are found without scanning the
+	 * board. Every field enters the frontier at most once.
+	 */
+	private void place(Field<Section> field, Section section) {
+		field.setContent(section);
+		placed++;
+		if (++work >= nextProgressWork) {
+			reportProgress();
+		}
+		int index = field.getIndex();
+		for (Orientation orientation : ORIENTATIONS) {
+			int neighbour = board.getNeighbourIndex(index, orientation);
+			if (neighbour >= 0 && !inFrontier.get(neighbour)
+					&& board.getField(neighbour).isEmpty()) {
+				inFrontier.set(neighbour);
+				frontier[frontierSize++] = neighbour;
 			}
 		}
 	}
@@ -192,7 +413,7 @@ public class MazeGenerator {
 	private Collection<Path> createSolutionPath() {
 
 		Path path = new Path(Orientation.EAST);
-		start.setContent(path.getStart());
+		place(start, path.getStart());
 		ConcurrentLinkedQueue<Path> concurrentLinkedQueue = new ConcurrentLinkedQueue<Path>();
 		concurrentLinkedQueue.add(path);
 		return concurrentLinkedQueue;
@@ -208,23 +429,24 @@ public class MazeGenerator {
 		Field<Section> field = path.getEnd().getField();
 		Orientation currentOrientation = path.getCurrentDirection();
 
-		Collections.shuffle(turns);
+		int emptyNeighbours = field.getEmptyNeighbourMask();
+		Collections.shuffle(turns, random);
 		for (Direction direction : turns) {
 
 			Orientation newOrientation = currentOrientation.turn(direction);
-			Field<Section> neighbour = field.getEmptyNeighbours().get(
-					newOrientation);
-			if (neighbour != null) {
+			if ((emptyNeighbours & newOrientation.getMask()) != 0) {
+				Field<Section> neighbour = field.getNeighbour(newOrientation);
 				if (branchingTime()) {
 
 					Path branch = path.createPath(direction);
-					neighbour.setContent(branch.getStart());
+					place(neighbour, branch.getStart());
 					branches.add(branch);
+					branchCount++;
 
 				} else {
 
 					path.go(direction);
-					neighbour.setContent(path.getEnd());
+					place(neighbour, path.getEnd());
 					return true;
 
 				}
@@ -241,9 +463,96 @@ public class MazeGenerator {
 	public int getProgressPcnt() {
 		return progressPcnt;
 	}
-	
+
+	/**
+	 * @return the phase currently run or the last one after the generation.
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	private void startPhase(Phase phase) {
+		checkCancelled();
+		this.phase = phase;
+		for (PhaseListener listener : phaseListeners) {
+			listener.phaseStarted(phase);
+		}
+		placed = 0;
+		if (stats != null) {
+			stats.startPhase();
+		}
+		if (TRACER != null) {
+			phaseTrace = TRACER.startPhase(phase, board.getWidth(),
+					board.getHeight(), seed);
+		}
+	}
+
+	/**
+	 * Ends the trace of the phase in any case, but records its stats only if
+	 * the phase finished.
+	 */
+	private void finishPhase(boolean finished) {
+		if (phaseTrace != null) {
+			TRACER.endPhase(phaseTrace, placed, !finished);
+			phaseTrace = null;
+		}
+		if (finished && stats != null) {
+			stats.finishPhase(phase, placed);
+			stats.setBranches(branchCount);
+			stats.setHoles(holes);
+			stats.setDeadEnds(deadEnds);
+		}
+	}
+
+	/**
+	 * The next units of work take the given share of the overall progress
+	 * starting at the given base.
+	 */
+	private void startProgress(int base, int weight, long total) {
+		progressBase = base;
+		progressWeight = weight;
+		progressTotal = total;
+		work = 0;
+		nextProgressWork = 0;
+		progressPcnt = base;
+	}
+
+	/**
+	 * Called only when the work reaches the next whole percent, so the hot
+	 * loops just compare a counter.
+	 */
+	private void reportProgress() {
+		checkCancelled();
+		int progress = progressBase
+				+ (int) (work * progressWeight / progressTotal);
+		int nextProgress = progress + 1 - progressBase;
+		nextProgressWork = (nextProgress * progressTotal + progressWeight - 1)
+				/ progressWeight;
+		updateProgress(progress);
+	}
+
+	private void checkCancelled() {
+		if (cancelled || Thread.currentThread().isInterrupted()) {
+			throw new GenerationCancelledException();
+		}
+	}
+
+	private void updateProgress(int progress) {
+		if (progress != progressPcnt) {
+			progressPcnt = progress;
+			if (progressInterval > 0 && progress < 100) {
+				long now = System.nanoTime();
+				if (now - lastNotification < progressInterval) {
+					return;
+				}
+				lastNotification = now;
+			}
+			notifyProgress(progress);
+		}
+	}
+
 	private void notifyProgress(int progress) {
-		for(ProgressListener listener : listeners) {
+		for (ProgressListener listener : listeners) {
 			listener.updateProgress(progress);
 		}
 	}
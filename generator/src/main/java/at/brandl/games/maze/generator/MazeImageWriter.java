@@ -0,0 +1,218 @@
+package at.brandl.games.maze.generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+/**
+ * Renders a maze into an image row by row, either from a whole
+ * {@link Board} or as a {@link RowListener} of the
+ * {@link StreamingMazeGenerator}. Every row of the maze becomes a band of
+ * pixels rendered from the passages of that row alone, so only a few rows
+ * of the image are kept in memory whatever the height of the maze.
+ * <p>
+ * Every field takes <code>cellSize</code> pixels in both directions, its
+ * walls to the north and west the first <code>wallWidth</code> of them. The
+ * walls to the east and south of the maze add another
+ * <code>wallWidth</code> pixels to the image.
+ */
+public abstract class MazeImageWriter implements RowListener, Closeable {
+
+	public static class MazeImageWriterException extends RuntimeException {
+
+		private static final long serialVersionUID = -1209416950815402817L;
+
+		public MazeImageWriterException(IOException cause) {
+			super(cause);
+		}
+
+	}
+
+	public static final int DEFAULT_WALL_COLOR = 0x000000;
+	public static final int DEFAULT_FIELD_COLOR = 0xffffff;
+	public static final int DEFAULT_START_COLOR = 0x0000ff;
+	public static final int DEFAULT_END_COLOR = 0x00ff00;
+
+	protected final int width;
+	protected final int height;
+	protected final int cellSize;
+	protected final int wallWidth;
+
+	protected int wallColor = DEFAULT_WALL_COLOR;
+	protected int fieldColor = DEFAULT_FIELD_COLOR;
+	protected int startColor = DEFAULT_START_COLOR;
+	protected int endColor = DEFAULT_END_COLOR;
+
+	private int startRow = -1;
+	private int startColumn = -1;
+	private int endRow = -1;
+	private int endColumn = -1;
+	private int rowsWritten;
+
+	/**
+	 * @param wallWidth
+	 *            at least one pixel and less than the cell size.
+	 */
+	protected MazeImageWriter(int width, int height, int cellSize,
+			int wallWidth) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("maze must not be empty");
+		}
+		if (wallWidth < 1 || wallWidth >= cellSize) {
+			throw new IllegalArgumentException("wall width " + wallWidth
+					+ " does not fit into cell size " + cellSize);
+		}
+		long imageSize = (long) Math.max(width, height) * cellSize + wallWidth;
+		if (imageSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("image of maze " + width + "x"
+					+ height + " with cell size " + cellSize + " too large");
+		}
+		this.width = width;
+		this.height = height;
+		this.cellSize = cellSize;
+		this.wallWidth = wallWidth;
+	}
+
+	public int getImageWidth() {
+		return width * cellSize + wallWidth;
+	}
+
+	public int getImageHeight() {
+		return height * cellSize + wallWidth;
+	}
+
+	/**
+	 * Colours are given as <code>0xRRGGBB</code> and must be set before the
+	 * first row.
+	 */
+	public void setColors(int wallColor, int fieldColor, int startColor,
+			int endColor) {
+		checkNotStarted();
+		this.wallColor = wallColor;
+		this.fieldColor = fieldColor;
+		this.startColor = startColor;
+		this.endColor = endColor;
+	}
+
+	/**
+	 * Marks the start in the start colour, none is marked by default.
+	 */
+	public void setStart(int row, int column) {
+		checkNotStarted();
+		startRow = row;
+		startColumn = column;
+	}
+
+	/**
+	 * Marks the end in the end colour, none is marked by default.
+	 */
+	public void setEnd(int row, int column) {
+		checkNotStarted();
+		endRow = row;
+		endColumn = column;
+	}
+
+	/**
+	 * Renders the whole board with its start and end marked and closes the
+	 * underlying stream, also if rendering fails.
+	 */
+	public void write(Board<Section> board) throws IOException {
+		if (board.getWidth() != width || board.getHeight() != height) {
+			throw new IllegalArgumentException("board of " + board.getWidth()
+					+ "x" + board.getHeight() + " does not fit image of maze "
+					+ width + "x" + height);
+		}
+		Field<Section> start = board.getStart();
+		if (start != null) {
+			setStart(start.getRow(), start.getColumn());
+		}
+		Field<Section> end = board.getEnd();
+		if (end != null) {
+			setEnd(end.getRow(), end.getColumn());
+		}
+		byte[] passages = new byte[width];
+		boolean rendered = false;
+		try {
+			for (int row = 0; row < height; row++) {
+				for (int column = 0; column < width; column++) {
+					passages[column] = (byte) board.getField(row, column)
+							.getPassages();
+				}
+				rowFinished(row, passages);
+			}
+			rendered = true;
+			close();
+		} catch (MazeImageWriterException e) {
+			throw (IOException) e.getCause();
+		} finally {
+			if (!rendered) {
+				closeStream();
+			}
+		}
+	}
+
+	/**
+	 * @throws MazeImageWriterException
+	 *             if the row cannot be written.
+	 */
+	@Override
+	public void rowFinished(int row, byte[] passages) {
+		if (row != rowsWritten) {
+			throw new IllegalStateException("row " + row + " out of order, "
+					+ rowsWritten + " rows written");
+		}
+		try {
+			if (row == 0) {
+				writeHeader();
+			}
+			writeRow(row, passages);
+		} catch (IOException e) {
+			throw new MazeImageWriterException(e);
+		}
+		rowsWritten++;
+	}
+
+	/**
+	 * Writes the walls to the south and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (rowsWritten != height) {
+				throw new IllegalStateException(rowsWritten + " of " + height
+						+ " rows written");
+			}
+			writeFooter();
+		} finally {
+			closeStream();
+		}
+	}
+
+	protected boolean isStart(int row, int column) {
+		return row == startRow && column == startColumn;
+	}
+
+	protected boolean isEnd(int row, int column) {
+		return row == endRow && column == endColumn;
+	}
+
+	protected abstract void writeHeader() throws IOException;
+
+	protected abstract void writeRow(int row, byte[] passages)
+			throws IOException;
+
+	protected abstract void writeFooter() throws IOException;
+
+	protected abstract void closeStream() throws IOException;
+
+	private void checkNotStarted() {
+		if (rowsWritten > 0) {
+			throw new IllegalStateException("rows already written");
+		}
+	}
+
+}
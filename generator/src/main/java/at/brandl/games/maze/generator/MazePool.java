@@ -0,0 +1,208 @@
+package at.brandl.games.maze.generator;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.MazeGenerator.GenerationCancelledException;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.MazeTracer.Tracing;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Keeps a bounded number of generated mazes for every {@link MazeSpec}
+ * asked for and refills them in the background, so a maze can be served
+ * without waiting for the generator. Only if no maze of the spec is ready,
+ * one is generated on the calling thread.
+ * <p>
+ * The mazes of every spec ever asked for are kept until the pool is
+ * dropped, so callers must keep the set of specs small, e.g. one per level.
+ */
+public class MazePool {
+
+	private static final MazeTracer TRACER = Tracing.getTracer();
+
+	private static class LowPriorityThreadFactory implements ThreadFactory {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "maze-pool");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		}
+	}
+
+	private class Refill implements Runnable {
+
+		private final MazeSpec spec;
+		private final BlockingQueue<Board<Section>> mazes;
+
+		private Refill(MazeSpec spec, BlockingQueue<Board<Section>> mazes) {
+			this.spec = spec;
+			this.mazes = mazes;
+		}
+
+		@Override
+		public void run() {
+			Object refill = TRACER == null ? null : TRACER.startRefill(spec);
+			int generated = 0;
+			try {
+				while (mazes.remainingCapacity() > 0) {
+					mazes.offer(spec.generate(SplitMixRandom.createSeed(), null));
+					generated++;
+				}
+			} catch (GenerationCancelledException e) {
+				// interrupted by shutdown
+				return;
+			} finally {
+				refilling.remove(spec);
+				if (refill != null) {
+					TRACER.endRefill(refill, generated);
+				}
+			}
+			// a maze taken after the loop ended found the refill still running
+			if (mazes.remainingCapacity() > 0) {
+				schedule(spec, mazes);
+			}
+		}
+	}
+
+	private final ConcurrentMap<MazeSpec, BlockingQueue<Board<Section>>> pool = new ConcurrentHashMap<>();
+	private final Set<MazeSpec> refilling = Collections
+			.newSetFromMap(new ConcurrentHashMap<MazeSpec, Boolean>());
+	private final int capacity;
+	private final Executor executor;
+	private final ExecutorService ownExecutor;
+	private volatile long progressInterval;
+
+	/**
+	 * Creates a pool refilled by a single background thread of minimum
+	 * priority.
+	 */
+	public MazePool(int capacity) {
+		this(capacity, Executors
+				.newSingleThreadExecutor(new LowPriorityThreadFactory()), true);
+	}
+
+	public MazePool(int capacity, Executor executor) {
+		this(capacity, executor, false);
+	}
+
+	private MazePool(int capacity, Executor executor, boolean ownExecutor) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.executor = executor;
+		this.ownExecutor = ownExecutor ? (ExecutorService) executor : null;
+	}
+
+	public Board<Section> get(MazeSpec spec) {
+		return get(spec, null);
+	}
+
+	/**
+	 * @param listener
+	 *            notified of the progress if the maze has to be generated on
+	 *            the calling thread, may be <code>null</code>.
+	 */
+	public Board<Section> get(MazeSpec spec, ProgressListener listener) {
+		BlockingQueue<Board<Section>> mazes = getMazes(spec);
+		Board<Section> board = mazes.poll();
+		schedule(spec, mazes);
+		if (board == null) {
+			board = spec.generate(SplitMixRandom.createSeed(), listener,
+					progressInterval);
+		}
+		return board;
+	}
+
+	/**
+	 * Fills the pool for the given spec in the background, for mazes likely
+	 * to be asked for soon.
+	 *
+	 * @throws RejectedExecutionException
+	 *             if the executor does not take the refill, e.g. after the
+	 *             pool was shut down.
+	 */
+	public void prefetch(MazeSpec spec) {
+		BlockingQueue<Board<Section>> mazes = getMazes(spec);
+		if (mazes.remainingCapacity() > 0 && refilling.add(spec)) {
+			execute(spec, mazes);
+		}
+	}
+
+	/**
+	 * Limits the progress notifications of mazes generated on the calling
+	 * thread to one per given interval, like
+	 * {@link MazeGenerator#setProgressInterval(long, TimeUnit)}.
+	 */
+	public void setProgressInterval(long progressInterval, TimeUnit unit) {
+		this.progressInterval = unit.toNanos(progressInterval);
+	}
+
+	/**
+	 * @return the number of mazes of the given spec ready to be served.
+	 */
+	public int getAvailable(MazeSpec spec) {
+		BlockingQueue<Board<Section>> mazes = pool.get(spec);
+		return mazes == null ? 0 : mazes.size();
+	}
+
+	/**
+	 * Stops the background thread if the pool created it.
+	 */
+	public void shutdown() {
+		if (ownExecutor != null) {
+			ownExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Prefetches like {@link #prefetch(MazeSpec)}, but leaves the pool empty
+	 * if the executor rejects the refill.
+	 */
+	private void schedule(MazeSpec spec, BlockingQueue<Board<Section>> mazes) {
+		if (mazes.remainingCapacity() > 0 && refilling.add(spec)) {
+			try {
+				execute(spec, mazes);
+			} catch (RejectedExecutionException e) {
+				// shut down, mazes are generated on the calling thread
+			}
+		}
+	}
+
+	/**
+	 * Runs the refill, the spec must have been added to the refilling specs.
+	 */
+	private void execute(MazeSpec spec, BlockingQueue<Board<Section>> mazes) {
+		try {
+			executor.execute(new Refill(spec, mazes));
+		} catch (RejectedExecutionException e) {
+			refilling.remove(spec);
+			throw e;
+		}
+	}
+
+	private BlockingQueue<Board<Section>> getMazes(MazeSpec spec) {
+		BlockingQueue<Board<Section>> mazes = pool.get(spec);
+		if (mazes == null) {
+			pool.putIfAbsent(spec, new ArrayBlockingQueue<Board<Section>>(
+					capacity));
+			mazes = pool.get(spec);
+		}
+		return mazes;
+	}
+
+}
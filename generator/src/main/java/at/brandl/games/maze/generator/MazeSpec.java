@@ -0,0 +1,102 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.TimeUnit;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * The parameters a maze is generated with, apart from the seed.
+ */
+public final class MazeSpec {
+
+	private final int width;
+	private final int height;
+	private final int averageNumberOfStepsToNextBranch;
+
+	public MazeSpec(int width, int height, int averageNumberOfStepsToNextBranch) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("maze must not be empty");
+		}
+		if (averageNumberOfStepsToNextBranch < 1) {
+			throw new IllegalArgumentException(
+					"average number of steps to next branch must be positive");
+		}
+		this.width = width;
+		this.height = height;
+		this.averageNumberOfStepsToNextBranch = averageNumberOfStepsToNextBranch;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getAverageNumberOfStepsToNextBranch() {
+		return averageNumberOfStepsToNextBranch;
+	}
+
+	/**
+	 * @param listener
+	 *            may be <code>null</code>.
+	 */
+	Board<Section> generate(long seed, ProgressListener listener) {
+		return generate(seed, listener, 0);
+	}
+
+	/**
+	 * @param progressInterval
+	 *            the nanoseconds at least between two notifications of the
+	 *            listener, 0 for no limit.
+	 */
+	Board<Section> generate(long seed, ProgressListener listener,
+			long progressInterval) {
+		Board<Section> board = new Board<Section>(width, height);
+		MazeGenerator generator = new MazeGenerator(board, seed);
+		generator
+				.setAverageNumberOfStepsToNextBranch(averageNumberOfStepsToNextBranch);
+		if (listener != null) {
+			generator.addProgressListener(listener);
+		}
+		if (progressInterval > 0) {
+			generator.setProgressInterval(progressInterval,
+					TimeUnit.NANOSECONDS);
+		}
+		generator.generate();
+		return board;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + width;
+		result = prime * result + height;
+		result = prime * result + averageNumberOfStepsToNextBranch;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof MazeSpec)) {
+			return false;
+		}
+		MazeSpec other = (MazeSpec) obj;
+		return width == other.width
+				&& height == other.height
+				&& averageNumberOfStepsToNextBranch == other.averageNumberOfStepsToNextBranch;
+	}
+
+	@Override
+	public String toString() {
+		return width + "x" + height + "/" + averageNumberOfStepsToNextBranch;
+	}
+
+}
@@ -0,0 +1,66 @@
+package at.brandl.games.maze.generator;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+import at.brandl.games.maze.generator.MazeGenerator.Phase;
+
+/**
+ * Traces generations, their phases, pool refills and solver queries, e.g.
+ * as events of a profiler. Every start returns a token for the matching
+ * end, or <code>null</code> if the tracer does not record it right now.
+ * <p>
+ * The tracer is the first one registered as a {@link ServiceLoader service}
+ * on the class path. Without one nothing is traced, and a trace point costs
+ * a check of a constant.
+ */
+public interface MazeTracer {
+
+	public static final class Tracing {
+
+		private static final MazeTracer TRACER = load();
+
+		private Tracing() {
+		}
+
+		/**
+		 * @return the registered tracer or <code>null</code> if there is
+		 *         none.
+		 */
+		public static MazeTracer getTracer() {
+			return TRACER;
+		}
+
+		private static MazeTracer load() {
+			Iterator<MazeTracer> tracers = ServiceLoader.load(
+					MazeTracer.class, MazeTracer.class.getClassLoader())
+					.iterator();
+			return tracers.hasNext() ? tracers.next() : null;
+		}
+	}
+
+	Object startGeneration(int width, int height, long seed);
+
+	/**
+	 * @param cancelled
+	 *            whether the generation stopped before it was done.
+	 */
+	void endGeneration(Object generation, boolean cancelled);
+
+	Object startPhase(Phase phase, int width, int height, long seed);
+
+	/**
+	 * @param cancelled
+	 *            whether the phase stopped before it was done.
+	 */
+	void endPhase(Object phase, int cellsPlaced, boolean cancelled);
+
+	Object startRefill(MazeSpec spec);
+
+	void endRefill(Object refill, int mazes);
+
+	Object startQuery(String algorithm, int size, int from, int to);
+
+	void endQuery(Object query, int length);
+
+}
@@ -0,0 +1,166 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.SOUTH;
+import static at.brandl.games.maze.generator.MazeFormat.BITS_PER_FIELD;
+import static at.brandl.games.maze.generator.MazeFormat.EAST_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.FIELDS_PER_BYTE;
+import static at.brandl.games.maze.generator.MazeFormat.MAGIC;
+import static at.brandl.games.maze.generator.MazeFormat.SOUTH_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.VERSION;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+/**
+ * Writes a maze in the binary format read by {@link MappedMaze}, either
+ * from a whole {@link Board} or row by row as a {@link RowListener} of the
+ * {@link StreamingMazeGenerator}.
+ */
+public class MazeWriter implements RowListener, Closeable {
+
+	public static class MazeWriterException extends RuntimeException {
+
+		private static final long serialVersionUID = 3146937470373582409L;
+
+		public MazeWriterException(IOException cause) {
+			super(cause);
+		}
+
+	}
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final DataOutputStream out;
+	private final int width;
+	private final int height;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferSize;
+	private int current;
+	private int fieldsInCurrent;
+	private long fieldsWritten;
+
+	public MazeWriter(OutputStream out, int width, int height, int startRow,
+			int startColumn, int endRow, int endColumn) throws IOException {
+		this.out = new DataOutputStream(out);
+		this.width = width;
+		this.height = height;
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+		this.out.writeInt(width);
+		this.out.writeInt(height);
+		this.out.writeInt(startRow);
+		this.out.writeInt(startColumn);
+		this.out.writeInt(endRow);
+		this.out.writeInt(endColumn);
+	}
+
+	/**
+	 * Creates a writer for the rows of the given generator, to be passed to
+	 * its {@link StreamingMazeGenerator#generate(RowListener) generate}
+	 * method.
+	 */
+	public MazeWriter(OutputStream out, StreamingMazeGenerator generator)
+			throws IOException {
+		this(out, generator.getWidth(), generator.getHeight(), 0, generator
+				.getStartColumn(), generator.getHeight() - 1, generator
+				.getEndColumn());
+	}
+
+	/**
+	 * Writes the board and closes the stream, also if writing fails.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the board has no start or end.
+	 */
+	public static void write(Board<Section> board, OutputStream out)
+			throws IOException {
+		Field<Section> start = board.getStart();
+		Field<Section> end = board.getEnd();
+		if (start == null || end == null) {
+			throw new IllegalArgumentException("board without start or end");
+		}
+		boolean written = false;
+		try {
+			MazeWriter writer = new MazeWriter(out, board.getWidth(),
+					board.getHeight(), start.getRow(), start.getColumn(),
+					end.getRow(), end.getColumn());
+			for (int index = 0; index < board.getSize(); index++) {
+				writer.writeField(board.getField(index).getPassages());
+			}
+			written = true;
+			writer.close();
+		} finally {
+			if (!written) {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * @throws MazeWriterException
+	 *             if the row cannot be written.
+	 */
+	@Override
+	public void rowFinished(int row, byte[] passages) {
+		try {
+			for (int column = 0; column < width; column++) {
+				writeField(passages[column]);
+			}
+		} catch (IOException e) {
+			throw new MazeWriterException(e);
+		}
+	}
+
+	/**
+	 * Writes the remaining fields and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (fieldsWritten != (long) width * height) {
+				throw new IllegalStateException(fieldsWritten + " of "
+						+ (long) width * height + " fields written");
+			}
+			if (fieldsInCurrent > 0) {
+				buffer[bufferSize++] = (byte) current;
+			}
+			flushBuffer();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeField(int passages) throws IOException {
+		int bits = 0;
+		if ((passages & EAST.getMask()) != 0) {
+			bits |= EAST_BIT;
+		}
+		if ((passages & SOUTH.getMask()) != 0) {
+			bits |= SOUTH_BIT;
+		}
+		current |= bits << (fieldsInCurrent * BITS_PER_FIELD);
+		fieldsWritten++;
+		if (++fieldsInCurrent == FIELDS_PER_BYTE) {
+			buffer[bufferSize++] = (byte) current;
+			current = 0;
+			fieldsInCurrent = 0;
+			if (bufferSize == BUFFER_SIZE) {
+				flushBuffer();
+			}
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buffer, 0, bufferSize);
+		bufferSize = 0;
+	}
+
+}
@@ -0,0 +1,238 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.maze.generator.MazeFormat.BITS_PER_FIELD;
+import static at.brandl.games.maze.generator.MazeFormat.EAST_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.FIELDS_PER_BYTE;
+import static at.brandl.games.maze.generator.MazeFormat.HEADER_SIZE;
+import static at.brandl.games.maze.generator.MazeFormat.MAGIC;
+import static at.brandl.games.maze.generator.MazeFormat.SOUTH_BIT;
+import static at.brandl.games.maze.generator.MazeFormat.VERSION;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+
+import at.brandl.games.commons.Board.IllegalBoardExcption;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+/**
+ * A writable maze kept outside of the Java heap in the layout of the binary
+ * maze format, two bits per field. It is either allocated in native memory
+ * or mapped onto a file, which then is a maze file readable by
+ * {@link MappedMaze#open(File)} as soon as the maze is complete.
+ * <p>
+ * The {@link StreamingMazeGenerator} writes into it directly as a
+ * {@link RowListener}. It is not thread safe.
+ */
+public class OffHeapMaze extends MappedMaze implements RowListener {
+
+	private final ByteBuffer header;
+
+	private OffHeapMaze(ByteBuffer header, ByteBuffer[] chunks, int width,
+			int height) {
+		super(chunks, width, height, 0, 0, height - 1, width - 1);
+		this.header = header;
+		writeHeader();
+	}
+
+	/**
+	 * Allocates a maze without passages in native memory. It starts in the
+	 * top left and ends in the bottom right field until set otherwise.
+	 */
+	public static OffHeapMaze allocate(int width, int height) {
+		long dataSize = getDataSize(width, height);
+		ByteBuffer[] chunks = new ByteBuffer[getChunkCount(dataSize)];
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			chunks[chunk] = ByteBuffer.allocateDirect((int) Math.min(
+					CHUNK_SIZE, dataSize - chunk * CHUNK_SIZE));
+		}
+		return new OffHeapMaze(ByteBuffer.allocate(HEADER_SIZE), chunks,
+				width, height);
+	}
+
+	/**
+	 * Allocates a maze for the rows of the given generator, to be passed to
+	 * its {@link StreamingMazeGenerator#generate(RowListener) generate}
+	 * method, with its start and end set.
+	 */
+	public static OffHeapMaze allocate(StreamingMazeGenerator generator) {
+		OffHeapMaze maze = allocate(generator.getWidth(),
+				generator.getHeight());
+		maze.setStartAndEnd(generator);
+		return maze;
+	}
+
+	/**
+	 * Creates or overwrites the given file with a maze without passages and
+	 * maps it into memory. It starts in the top left and ends in the bottom
+	 * right field until set otherwise.
+	 */
+	public static OffHeapMaze create(File file, int width, int height)
+			throws IOException {
+		long dataSize = getDataSize(width, height);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(0);
+			randomAccessFile.setLength(HEADER_SIZE + dataSize);
+			FileChannel channel = randomAccessFile.getChannel();
+			return new OffHeapMaze(channel.map(MapMode.READ_WRITE, 0,
+					HEADER_SIZE), map(channel, MapMode.READ_WRITE, dataSize),
+					width, height);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Creates a maze file for the rows of the given generator, to be passed
+	 * to its {@link StreamingMazeGenerator#generate(RowListener) generate}
+	 * method, with its start and end set.
+	 */
+	public static OffHeapMaze create(File file,
+			StreamingMazeGenerator generator) throws IOException {
+		OffHeapMaze maze = create(file, generator.getWidth(),
+				generator.getHeight());
+		maze.setStartAndEnd(generator);
+		return maze;
+	}
+
+	private static long getDataSize(int width, int height) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("maze must not be empty");
+		}
+		return MazeFormat.getDataSize(width, height);
+	}
+
+	public void setStart(int row, int column) {
+		checkField(row, column);
+		startRow = row;
+		startColumn = column;
+		writeHeader();
+	}
+
+	public void setEnd(int row, int column) {
+		checkField(row, column);
+		endRow = row;
+		endColumn = column;
+		writeHeader();
+	}
+
+	private void setStartAndEnd(StreamingMazeGenerator generator) {
+		setStart(0, generator.getStartColumn());
+		setEnd(height - 1, generator.getEndColumn());
+	}
+
+	public void openPassage(int row, int column, Orientation orientation) {
+		checkField(row, column);
+		switch (orientation) {
+		case NORTH:
+			if (row == 0) {
+				throw new IllegalBoardExcption();
+			}
+			setBits(index(row - 1, column), SOUTH_BIT);
+			break;
+		case EAST:
+			if (column == width - 1) {
+				throw new IllegalBoardExcption();
+			}
+			setBits(index(row, column), EAST_BIT);
+			break;
+		case SOUTH:
+			if (row == height - 1) {
+				throw new IllegalBoardExcption();
+			}
+			setBits(index(row, column), SOUTH_BIT);
+			break;
+		case WEST:
+			if (column == 0) {
+				throw new IllegalBoardExcption();
+			}
+			setBits(index(row, column - 1), EAST_BIT);
+			break;
+		default:
+			throw new AssertionError("unknown Orientation " + orientation);
+		}
+	}
+
+	/**
+	 * Stores the east and south passages of a finished row, the north and
+	 * west passages are those of the neighbours.
+	 */
+	@Override
+	public void rowFinished(int row, byte[] passages) {
+		long index = index(row, 0);
+		for (int column = 0; column < width; column++) {
+			int bits = 0;
+			if ((passages[column] & Orientation.EAST.getMask()) != 0) {
+				bits |= EAST_BIT;
+			}
+			if ((passages[column] & Orientation.SOUTH.getMask()) != 0) {
+				bits |= SOUTH_BIT;
+			}
+			if (bits != 0) {
+				setBits(index + column, bits);
+			}
+		}
+	}
+
+	/**
+	 * Writes the maze in the binary maze format straight from native memory.
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		write(channel, header);
+		for (ByteBuffer chunk : chunks) {
+			write(channel, chunk);
+		}
+	}
+
+	/**
+	 * Forces the changes of a maze mapped onto a file to the storage device.
+	 */
+	public void force() {
+		if (header instanceof MappedByteBuffer) {
+			((MappedByteBuffer) header).force();
+			for (ByteBuffer chunk : chunks) {
+				((MappedByteBuffer) chunk).force();
+			}
+		}
+	}
+
+	private void write(WritableByteChannel channel, ByteBuffer buffer)
+			throws IOException {
+		ByteBuffer data = buffer.duplicate();
+		data.clear();
+		while (data.hasRemaining()) {
+			channel.write(data);
+		}
+	}
+
+	private void writeHeader() {
+		header.putInt(0, MAGIC);
+		header.putInt(4, VERSION);
+		header.putInt(8, width);
+		header.putInt(12, height);
+		header.putInt(16, startRow);
+		header.putInt(20, startColumn);
+		header.putInt(24, endRow);
+		header.putInt(28, endColumn);
+	}
+
+	private void setBits(long index, int bits) {
+		long position = index / FIELDS_PER_BYTE;
+		ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+		int offset = (int) (position & (CHUNK_SIZE - 1));
+		int shift = (int) (index % FIELDS_PER_BYTE) * BITS_PER_FIELD;
+		chunk.put(offset, (byte) (chunk.get(offset) | bits << shift));
+	}
+
+	private long index(int row, int column) {
+		return (long) row * width + column;
+	}
+
+}
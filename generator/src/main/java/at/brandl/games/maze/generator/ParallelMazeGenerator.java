@@ -0,0 +1,283 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.SOUTH;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.MazeTracer.Tracing;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Generates a maze by splitting the board into tiles, generating a spanning
+ * tree for every tile on a fork/join pool and joining the tiles with exactly
+ * one passage for every edge of a random spanning tree over the tiles. The
+ * result is a perfect maze like the one of {@link MazeGenerator}, and the
+ * same seed and tile size always produce the same maze, no matter how the
+ * tiles are scheduled.
+ */
+public class ParallelMazeGenerator {
+
+	private static final int DEFAULT_TILE_SIZE = 256;
+
+	private static final MazeTracer TRACER = Tracing.getTracer();
+
+	private class TileTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -3311883010373136573L;
+
+		private final int from;
+		private final int to;
+
+		private TileTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				generateTile(from);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+			}
+		}
+	}
+
+	private final Board<Section> board;
+	private final long seed;
+	private final ForkJoinPool pool;
+	private final Collection<ProgressListener> listeners = new ArrayList<>();
+	private int averageNumberOfStepsToNextBranch = 15;
+	private int tileSize = DEFAULT_TILE_SIZE;
+
+	private int tileRows;
+	private int tileColumns;
+	private long[] tileSeeds;
+	private int finishedTiles;
+	private int progress;
+
+	public ParallelMazeGenerator(Board<Section> board) {
+		this(board, SplitMixRandom.createSeed());
+	}
+
+	public ParallelMazeGenerator(Board<Section> board, long seed) {
+		this(board, seed, SharedPool.POOL);
+	}
+
+	public ParallelMazeGenerator(Board<Section> board, long seed,
+			ForkJoinPool pool) {
+		this.board = board;
+		this.seed = seed;
+		this.pool = pool;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getAverageNumberOfStepsToNextBranch() {
+		return averageNumberOfStepsToNextBranch;
+	}
+
+	public void setAverageNumberOfStepsToNextBranch(
+			int averageNumberOfStepsToNextBranch) {
+		this.averageNumberOfStepsToNextBranch = averageNumberOfStepsToNextBranch;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Sets the width and height of the tiles generated in parallel. The
+	 * tiles in the last row and column take up the remainder of the board.
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("tile size must be positive");
+		}
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * The listeners are notified of the generated tiles by the threads of the
+	 * pool, one at a time.
+	 */
+	public void addProgressListener(ProgressListener listener) {
+		listeners.add(listener);
+	}
+
+	public Field<Section> getStart() {
+		return board.getStart();
+	}
+
+	public Field<Section> getEnd() {
+		return board.getEnd();
+	}
+
+	public void generate() {
+
+		Object generation = TRACER == null ? null : TRACER.startGeneration(
+				board.getWidth(), board.getHeight(), seed);
+
+		tileRows = Math.max(1, board.getHeight() / tileSize);
+		tileColumns = Math.max(1, board.getWidth() / tileSize);
+		SplitMixRandom random = new SplitMixRandom(seed);
+		tileSeeds = new long[tileRows * tileColumns];
+		for (int tile = 0; tile < tileSeeds.length; tile++) {
+			tileSeeds[tile] = random.nextLong();
+		}
+
+		finishedTiles = 0;
+		progress = 0;
+		boolean finished = false;
+		try {
+			pool.invoke(new TileTask(0, tileSeeds.length));
+
+			joinTiles(random);
+
+			MazeGenerator finisher = new MazeGenerator(board, seed);
+			for (ProgressListener listener : listeners) {
+				finisher.addProgressListener(listener);
+			}
+			finisher.setLongestPath();
+			finished = true;
+		} finally {
+			if (generation != null) {
+				TRACER.endGeneration(generation, !finished);
+			}
+		}
+	}
+
+	private void generateTile(int tile) {
+
+		int top = getTileTop(tile / tileColumns);
+		int left = getTileLeft(tile % tileColumns);
+		int height = getTileTop(tile / tileColumns + 1) - top;
+		int width = getTileLeft(tile % tileColumns + 1) - left;
+
+		Board<Section> tileBoard = new Board<Section>(width, height);
+		MazeGenerator generator = new MazeGenerator(tileBoard, tileSeeds[tile]);
+		generator
+				.setAverageNumberOfStepsToNextBranch(averageNumberOfStepsToNextBranch);
+		generator.createTree();
+
+		// moving the sections opens their passages on the board, every
+		// passage stays inside the tile, so tasks never share a field
+		for (int row = 0; row < height; row++) {
+			for (int column = 0; column < width; column++) {
+				Section section = tileBoard.getField(row, column).getContent();
+				board.getField(top + row, left + column).setContent(section);
+			}
+		}
+		tileFinished();
+	}
+
+	private synchronized void tileFinished() {
+		int tileProgress = ++finishedTiles * MazeGenerator.TREE_WEIGHT
+				/ tileSeeds.length;
+		if (tileProgress != progress) {
+			progress = tileProgress;
+			for (ProgressListener listener : listeners) {
+				listener.updateProgress(progress);
+			}
+		}
+	}
+
+	/**
+	 * Builds a random spanning tree over the tiles with Kruskal's algorithm
+	 * and opens one passage at a random place of the border between every
+	 * two tiles joined by it.
+	 */
+	private void joinTiles(SplitMixRandom random) {
+
+		int horizontalEdges = tileRows * (tileColumns - 1);
+		int[] edges = new int[horizontalEdges + (tileRows - 1) * tileColumns];
+		for (int edge = 0; edge < edges.length; edge++) {
+			edges[edge] = edge;
+		}
+		for (int i = edges.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int edge = edges[i];
+			edges[i] = edges[j];
+			edges[j] = edge;
+		}
+
+		int[] parents = new int[tileSeeds.length];
+		for (int tile = 0; tile < parents.length; tile++) {
+			parents[tile] = tile;
+		}
+
+		for (int edge : edges) {
+			int tile;
+			int neighbour;
+			Orientation orientation;
+			if (edge < horizontalEdges) {
+				int row = edge / (tileColumns - 1);
+				tile = row * tileColumns + edge % (tileColumns - 1);
+				neighbour = tile + 1;
+				orientation = EAST;
+			} else {
+				tile = edge - horizontalEdges;
+				neighbour = tile + tileColumns;
+				orientation = SOUTH;
+			}
+
+			int root = findRoot(parents, tile);
+			int neighbourRoot = findRoot(parents, neighbour);
+			if (root != neighbourRoot) {
+				parents[root] = neighbourRoot;
+				openBorder(tile, orientation, random);
+			}
+		}
+	}
+
+	private void openBorder(int tile, Orientation orientation,
+			SplitMixRandom random) {
+
+		int tileRow = tile / tileColumns;
+		int tileColumn = tile % tileColumns;
+		int row;
+		int column;
+		if (orientation == EAST) {
+			int top = getTileTop(tileRow);
+			row = top + random.nextInt(getTileTop(tileRow + 1) - top);
+			column = getTileLeft(tileColumn + 1) - 1;
+		} else {
+			int left = getTileLeft(tileColumn);
+			row = getTileTop(tileRow + 1) - 1;
+			column = left + random.nextInt(getTileLeft(tileColumn + 1) - left);
+		}
+
+		Field<Section> field = board.getField(row, column);
+		field.getContent().addNeighbour(orientation,
+				field.getNeighbour(orientation).getContent());
+	}
+
+	private int findRoot(int[] parents, int tile) {
+		while (parents[tile] != tile) {
+			parents[tile] = parents[parents[tile]];
+			tile = parents[tile];
+		}
+		return tile;
+	}
+
+	private int getTileTop(int tileRow) {
+		return tileRow == tileRows ? board.getHeight() : tileRow * tileSize;
+	}
+
+	private int getTileLeft(int tileColumn) {
+		return tileColumn == tileColumns ? board.getWidth() : tileColumn
+				* tileSize;
+	}
+
+}
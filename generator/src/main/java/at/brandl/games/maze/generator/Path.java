@@ -1,6 +1,8 @@
 package at.brandl.games.maze.generator;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -21,10 +23,13 @@ public class Path {
 		START, END
 	}
 
+	private static final Target[] TARGETS = Target.values();
+
 	public static class Section implements FieldContent<Section> {
 
-		private final Map<Orientation, Section> neighbours = new HashMap<Orientation, Path.Section>();
-		private final Map<Target, Section> targets = new HashMap<Target, Path.Section>();
+		private final Map<Orientation, Section> neighbours = new EnumMap<Orientation, Path.Section>(
+				Orientation.class);
+		private final Section[] targets = new Section[TARGETS.length];
 
 		private Field<Section> field;
 
@@ -37,24 +42,25 @@ public class Path {
 
 		}
 
-		private Section addNeighbour(Orientation direction, Section section) {
+		Section addNeighbour(Orientation direction, Section section) {
 			Section previous = neighbours.put(direction, section);
 			if (previous != null) {
 				throw new IllegalPathExcption();
 			}
 			section.neighbours.put(direction.opposite(), this);
-
-			for (Entry<Target, Section> entry : targets.entrySet()) {
-				if (section.targets.containsKey(entry)) {
-					throw new IllegalStateException(
-							"only one section can contain a given target");
-				}
-				section.setTarget(entry.getKey(), this);
+			if (field != null && section.field != null) {
+				field.openPassage(direction);
 			}
 
-			for (Entry<Target, Section> entry : section.targets.entrySet()) {
-				if (!targets.containsKey(entry.getKey())) {
-					setTarget(entry.getKey(), section);
+			for (Target target : TARGETS) {
+				if (hasTarget(target)) {
+					if (section.hasTarget(target)) {
+						throw new IllegalStateException(
+								"only one section can contain a given target");
+					}
+					section.setTarget(target, this);
+				} else if (section.hasTarget(target)) {
+					setTarget(target, section);
 				}
 			}
 			return section;
@@ -73,7 +79,11 @@ public class Path {
 		@SuppressWarnings("unchecked")
 		public void setField(Field<? extends FieldContent<Section>> field) {
 			this.field = (Field<Section>) field;
-
+			for (Entry<Orientation, Section> neighbour : neighbours.entrySet()) {
+				if (neighbour.getValue().field != null) {
+					this.field.openPassage(neighbour.getKey());
+				}
+			}
 		}
 
 		public Map<Orientation, Section> getNeighbours() {
@@ -81,20 +91,33 @@ public class Path {
 		}
 
 		public Section getTarget(Target target) {
-			return targets.get(target);
+			return targets[target.ordinal()];
 		}
 
+		/**
+		 * Points this section to the given section and every other section
+		 * reachable from here towards this one. The sections are walked with
+		 * an explicit stack, so long corridors do not exhaust the thread
+		 * stack.
+		 */
 		public void setTarget(Target target, Section section) {
-			targets.put(target, section);
-			for (Section neighbour : neighbours.values()) {
-				if (!neighbour.equals(section)) {
-					neighbour.setTarget(target, this);
+			int ordinal = target.ordinal();
+			targets[ordinal] = section;
+			Deque<Section> stack = new ArrayDeque<Section>();
+			stack.push(this);
+			while (!stack.isEmpty()) {
+				Section current = stack.pop();
+				for (Section neighbour : current.neighbours.values()) {
+					if (neighbour != current.targets[ordinal]) {
+						neighbour.targets[ordinal] = current;
+						stack.push(neighbour);
+					}
 				}
 			}
 		}
 
 		public boolean hasTarget(Target target) {
-			return targets.containsKey(target);
+			return targets[target.ordinal()] != null;
 		}
 
 		public boolean hasNeighbour(Orientation orientation) {
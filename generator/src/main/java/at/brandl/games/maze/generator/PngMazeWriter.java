@@ -0,0 +1,268 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.WEST;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+/**
+ * Writes a maze as PNG image with a palette of four colours, two bits to a
+ * pixel. The scanlines are deflated as they are rendered and written in
+ * chunks of bounded size, so the memory taken grows only with the width of
+ * the image.
+ * <p>
+ * All scanlines of a band but the first repeat the one before, and are
+ * written with the up filter as zeros, which costs the encoder next to
+ * nothing.
+ */
+public class PngMazeWriter extends MazeImageWriter {
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G',
+			'\r', '\n', 0x1a, '\n' };
+	private static final byte[] IHDR = { 'I', 'H', 'D', 'R' };
+	private static final byte[] PLTE = { 'P', 'L', 'T', 'E' };
+	private static final byte[] IDAT = { 'I', 'D', 'A', 'T' };
+	private static final byte[] IEND = { 'I', 'E', 'N', 'D' };
+
+	private static final int BIT_DEPTH = 2;
+	private static final int COLOR_TYPE_PALETTE = 3;
+	private static final int PIXELS_PER_BYTE = 8 / BIT_DEPTH;
+	private static final int FILTER_NONE = 0;
+	private static final int FILTER_UP = 2;
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private static final byte WALL = 0;
+	private static final byte FIELD = 1;
+	private static final byte START = 2;
+	private static final byte END = 3;
+
+	/**
+	 * Collects the deflated scanlines and writes them as IDAT chunks.
+	 */
+	private static class ChunkOutputStream extends OutputStream {
+
+		private final DataOutputStream out;
+		private final byte[] buffer = new byte[CHUNK_SIZE];
+		private final CRC32 crc = new CRC32();
+		private int size;
+
+		private ChunkOutputStream(DataOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (size == buffer.length) {
+				flushChunk();
+			}
+			buffer[size++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+				throws IOException {
+			while (length > 0) {
+				if (size == buffer.length) {
+					flushChunk();
+				}
+				int count = Math.min(length, buffer.length - size);
+				System.arraycopy(bytes, offset, buffer, size, count);
+				size += count;
+				offset += count;
+				length -= count;
+			}
+		}
+
+		private void flushChunk() throws IOException {
+			if (size > 0) {
+				writeChunk(IDAT, buffer, size);
+				size = 0;
+			}
+		}
+
+		private void writeChunk(byte[] type, byte[] data, int length)
+				throws IOException {
+			crc.reset();
+			crc.update(type);
+			crc.update(data, 0, length);
+			out.writeInt(length);
+			out.write(type);
+			out.write(data, 0, length);
+			out.writeInt((int) crc.getValue());
+		}
+	}
+
+	private final DataOutputStream out;
+	private final ChunkOutputStream chunks;
+	private final Deflater deflater;
+	private final DeflaterOutputStream data;
+
+	private final int imageWidth;
+	private final byte[] pixels;
+	private final byte[] scanline;
+	private final byte[] upScanline;
+
+	/**
+	 * @param compressionLevel
+	 *            the level of the {@link Deflater}, from
+	 *            {@link Deflater#BEST_SPEED} to
+	 *            {@link Deflater#BEST_COMPRESSION}.
+	 */
+	public PngMazeWriter(OutputStream out, int width, int height,
+			int cellSize, int wallWidth, int compressionLevel) {
+		super(width, height, cellSize, wallWidth);
+		this.out = new DataOutputStream(out);
+		chunks = new ChunkOutputStream(this.out);
+		deflater = new Deflater(compressionLevel);
+		data = new DeflaterOutputStream(chunks, deflater, CHUNK_SIZE);
+
+		imageWidth = getImageWidth();
+		int scanlineSize = 1 + (imageWidth + PIXELS_PER_BYTE - 1)
+				/ PIXELS_PER_BYTE;
+		// padded to whole bytes, the padding is ignored by decoders
+		pixels = new byte[(scanlineSize - 1) * PIXELS_PER_BYTE];
+		scanline = new byte[scanlineSize];
+		upScanline = new byte[scanlineSize];
+		upScanline[0] = FILTER_UP;
+	}
+
+	public PngMazeWriter(OutputStream out, int width, int height,
+			int cellSize, int wallWidth) {
+		this(out, width, height, cellSize, wallWidth, Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Creates a writer for the rows of the given generator, to be passed to
+	 * its {@link StreamingMazeGenerator#generate(RowListener) generate}
+	 * method, with start and end marked.
+	 */
+	public PngMazeWriter(OutputStream out, StreamingMazeGenerator generator,
+			int cellSize, int wallWidth) {
+		this(out, generator.getWidth(), generator.getHeight(), cellSize,
+				wallWidth);
+		setStart(0, generator.getStartColumn());
+		setEnd(generator.getHeight() - 1, generator.getEndColumn());
+	}
+
+	public static void write(Board<Section> board, OutputStream out,
+			int cellSize, int wallWidth) throws IOException {
+		new PngMazeWriter(out, board.getWidth(), board.getHeight(), cellSize,
+				wallWidth).write(board);
+	}
+
+	@Override
+	protected void writeHeader() throws IOException {
+		out.write(SIGNATURE);
+
+		byte[] header = new byte[13];
+		writeInt(header, 0, getImageWidth());
+		writeInt(header, 4, getImageHeight());
+		header[8] = BIT_DEPTH;
+		header[9] = COLOR_TYPE_PALETTE;
+		// compression, filter and interlace method
+		header[10] = 0;
+		header[11] = 0;
+		header[12] = 0;
+		chunks.writeChunk(IHDR, header, header.length);
+
+		byte[] palette = new byte[3 * 4];
+		writeColor(palette, WALL, wallColor);
+		writeColor(palette, FIELD, fieldColor);
+		writeColor(palette, START, startColor);
+		writeColor(palette, END, endColor);
+		chunks.writeChunk(PLTE, palette, palette.length);
+	}
+
+	/**
+	 * Writes the band of the row: first the walls to the north, then the
+	 * fields with the walls to the west.
+	 */
+	@Override
+	protected void writeRow(int row, byte[] passages) throws IOException {
+		for (int column = 0; column < width; column++) {
+			int left = column * cellSize;
+			fill(left, left + wallWidth, WALL);
+			boolean open = (passages[column] & NORTH.getMask()) != 0;
+			fill(left + wallWidth, left + cellSize, open ? FIELD : WALL);
+		}
+		fill(width * cellSize, imageWidth, WALL);
+		writeScanlines(wallWidth);
+
+		for (int column = 0; column < width; column++) {
+			int left = column * cellSize;
+			boolean open = (passages[column] & WEST.getMask()) != 0;
+			fill(left, left + wallWidth, open ? FIELD : WALL);
+			fill(left + wallWidth, left + cellSize, getFieldColor(row, column));
+		}
+		writeScanlines(cellSize - wallWidth);
+	}
+
+	@Override
+	protected void writeFooter() throws IOException {
+		fill(0, imageWidth, WALL);
+		writeScanlines(wallWidth);
+		data.finish();
+		chunks.flushChunk();
+		chunks.writeChunk(IEND, new byte[0], 0);
+	}
+
+	@Override
+	protected void closeStream() throws IOException {
+		deflater.end();
+		out.close();
+	}
+
+	private byte getFieldColor(int row, int column) {
+		if (isStart(row, column)) {
+			return START;
+		}
+		if (isEnd(row, column)) {
+			return END;
+		}
+		return FIELD;
+	}
+
+	private void fill(int from, int to, byte color) {
+		Arrays.fill(pixels, from, to, color);
+	}
+
+	/**
+	 * Packs the pixels into a scanline and writes it the given number of
+	 * times.
+	 */
+	private void writeScanlines(int count) throws IOException {
+		scanline[0] = FILTER_NONE;
+		for (int i = 1, x = 0; i < scanline.length; i++, x += PIXELS_PER_BYTE) {
+			scanline[i] = (byte) (pixels[x] << 6 | pixels[x + 1] << 4
+					| pixels[x + 2] << 2 | pixels[x + 3]);
+		}
+		data.write(scanline);
+		for (int i = 1; i < count; i++) {
+			data.write(upScanline);
+		}
+	}
+
+	private static void writeInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	private static void writeColor(byte[] palette, int index, int color) {
+		palette[3 * index] = (byte) (color >>> 16);
+		palette[3 * index + 1] = (byte) (color >>> 8);
+		palette[3 * index + 2] = (byte) color;
+	}
+
+}
@@ -0,0 +1,17 @@
+package at.brandl.games.maze.generator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The pool of a thread per core shared by default by the parallel
+ * generator and the batches, so they do not compete for the cores with
+ * pools of their own.
+ */
+final class SharedPool {
+
+	static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private SharedPool() {
+	}
+
+}
@@ -0,0 +1,94 @@
+package at.brandl.games.maze.generator;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast, non thread safe random generator based on the SplitMix64
+ * algorithm. A generator is fully defined by its seed, and {@link #split()}
+ * hands out statistically independent generators for other threads, so
+ * workers never contend on the atomic seed of {@link Random}.
+ */
+public class SplitMixRandom extends Random {
+
+	private static final long serialVersionUID = -1757367474880262339L;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static final AtomicLong SEEDS = new AtomicLong(
+			mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long seed;
+	private final long gamma;
+
+	public SplitMixRandom() {
+		this(createSeed());
+	}
+
+	public SplitMixRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private SplitMixRandom(long seed, long gamma) {
+		super(0L);
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * @return a seed that differs from all seeds created before in this
+	 *         virtual machine, even if they were created at the same time.
+	 */
+	public static long createSeed() {
+		return mix64(SEEDS.getAndAdd(2 * GOLDEN_GAMMA));
+	}
+
+	public SplitMixRandom split() {
+		return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// also called by the constructor of Random
+		this.seed = seed;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	private long nextSeed() {
+		return seed += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int transitions = Long.bitCount(z ^ (z >>> 1));
+		return transitions < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+}
@@ -0,0 +1,204 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.SOUTH;
+import static at.brandl.games.commons.Orientation.WEST;
+
+import java.util.Arrays;
+
+import at.brandl.games.commons.Orientation;
+
+/**
+ * Generates a perfect maze row by row with Eller's algorithm. Only the
+ * current row is kept in memory, so the height of the maze is not limited
+ * by the heap, and every row is handed to the {@link RowListener} as soon
+ * as it is finished.
+ * <p>
+ * Without the whole maze the longest path cannot be found, so the start is
+ * placed in the first and the end in the last row.
+ */
+public class StreamingMazeGenerator {
+
+	public static interface RowListener {
+
+		/**
+		 * @param passages
+		 *            the passages of every field of the row, combined from
+		 *            the {@link Orientation#getMask() masks} of their
+		 *            orientations. The array is reused for the next row.
+		 */
+		void rowFinished(int row, byte[] passages);
+	}
+
+	private final int width;
+	private final int height;
+	private final long seed;
+	private final int startColumn;
+	private final int endColumn;
+	private final long rowSeed;
+	private SplitMixRandom random;
+
+	private final byte[] passages;
+	private int[] sets;
+	private int[] nextSets;
+	private final int[] parents;
+	private final int[] fieldsInSet;
+	private final int[] candidates;
+	private final boolean[] setJoinedDown;
+	private final boolean[] joinedDown;
+	private final int[] renamed;
+
+	public StreamingMazeGenerator(int width, int height) {
+		this(width, height, SplitMixRandom.createSeed());
+	}
+
+	public StreamingMazeGenerator(int width, int height, long seed) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("maze must not be empty");
+		}
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		SplitMixRandom random = new SplitMixRandom(seed);
+		startColumn = random.nextInt(width);
+		endColumn = random.nextInt(width);
+		rowSeed = random.nextLong();
+
+		passages = new byte[width];
+		sets = new int[width];
+		nextSets = new int[width];
+		parents = new int[width];
+		fieldsInSet = new int[width];
+		candidates = new int[width];
+		setJoinedDown = new boolean[width];
+		joinedDown = new boolean[width];
+		renamed = new int[width];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the column of the start in the first row.
+	 */
+	public int getStartColumn() {
+		return startColumn;
+	}
+
+	/**
+	 * @return the column of the end in the last row.
+	 */
+	public int getEndColumn() {
+		return endColumn;
+	}
+
+	public void generate(RowListener listener) {
+
+		random = new SplitMixRandom(rowSeed);
+		Arrays.fill(joinedDown, false);
+		for (int column = 0; column < width; column++) {
+			sets[column] = column;
+		}
+
+		for (int row = 0; row < height; row++) {
+
+			boolean lastRow = row == height - 1;
+			for (int column = 0; column < width; column++) {
+				passages[column] = (byte) (joinedDown[column] ? NORTH.getMask()
+						: 0);
+				parents[column] = column;
+			}
+
+			joinRight(lastRow);
+			if (!lastRow) {
+				joinDown();
+			}
+
+			listener.rowFinished(row, passages);
+		}
+	}
+
+	/**
+	 * Opens passages to the east between fields of different sets at random,
+	 * in the last row between all of them.
+	 */
+	private void joinRight(boolean lastRow) {
+		for (int column = 0; column < width - 1; column++) {
+			int set = findRoot(sets[column]);
+			int rightSet = findRoot(sets[column + 1]);
+			if (set != rightSet && (lastRow || random.nextBoolean())) {
+				parents[rightSet] = set;
+				passages[column] |= EAST.getMask();
+				passages[column + 1] |= WEST.getMask();
+			}
+		}
+	}
+
+	/**
+	 * Opens passages to the south at random, at least one for every set, and
+	 * numbers the sets of the next row.
+	 */
+	private void joinDown() {
+		Arrays.fill(fieldsInSet, 0);
+		Arrays.fill(setJoinedDown, false);
+		for (int column = 0; column < width; column++) {
+			int set = findRoot(sets[column]);
+			sets[column] = set;
+			if (random.nextInt(++fieldsInSet[set]) == 0) {
+				candidates[set] = column;
+			}
+			joinedDown[column] = random.nextBoolean();
+			setJoinedDown[set] |= joinedDown[column];
+		}
+		for (int column = 0; column < width; column++) {
+			int set = sets[column];
+			if (!setJoinedDown[set]) {
+				joinedDown[candidates[set]] = true;
+				setJoinedDown[set] = true;
+			}
+		}
+
+		Arrays.fill(renamed, -1);
+		int nextSet = 0;
+		for (int column = 0; column < width; column++) {
+			if (joinedDown[column]) {
+				passages[column] |= SOUTH.getMask();
+				int set = sets[column];
+				if (renamed[set] < 0) {
+					renamed[set] = nextSet++;
+				}
+				nextSets[column] = renamed[set];
+			} else {
+				nextSets[column] = -1;
+			}
+		}
+		for (int column = 0; column < width; column++) {
+			if (nextSets[column] < 0) {
+				nextSets[column] = nextSet++;
+			}
+		}
+
+		int[] swap = sets;
+		sets = nextSets;
+		nextSets = swap;
+	}
+
+	private int findRoot(int set) {
+		while (parents[set] != set) {
+			parents[set] = parents[parents[set]];
+			set = parents[set];
+		}
+		return set;
+	}
+
+}
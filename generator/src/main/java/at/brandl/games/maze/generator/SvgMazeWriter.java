@@ -0,0 +1,171 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.WEST;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+/**
+ * Writes a maze as SVG image. The walls are drawn as lines in a coordinate
+ * system of one unit per cell, and neighbouring walls are merged into a
+ * single line: walls to the north within a row, walls to the west across
+ * rows, keeping only the start row of every open run in memory. Every row
+ * gets a path of the lines ending in it, so no single element grows with
+ * the size of the maze.
+ */
+public class SvgMazeWriter extends MazeImageWriter {
+
+	private final Writer out;
+
+	/**
+	 * The row the wall to the west of every column has been running since or
+	 * -1 if there is none.
+	 */
+	private final int[] runStarts;
+	private final StringBuilder lines = new StringBuilder();
+
+	public SvgMazeWriter(OutputStream out, int width, int height,
+			int cellSize, int wallWidth) throws IOException {
+		super(width, height, cellSize, wallWidth);
+		this.out = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		runStarts = new int[width];
+		Arrays.fill(runStarts, -1);
+	}
+
+	/**
+	 * Creates a writer for the rows of the given generator, to be passed to
+	 * its {@link StreamingMazeGenerator#generate(RowListener) generate}
+	 * method, with start and end marked.
+	 */
+	public SvgMazeWriter(OutputStream out, StreamingMazeGenerator generator,
+			int cellSize, int wallWidth) throws IOException {
+		this(out, generator.getWidth(), generator.getHeight(), cellSize,
+				wallWidth);
+		setStart(0, generator.getStartColumn());
+		setEnd(generator.getHeight() - 1, generator.getEndColumn());
+	}
+
+	public static void write(Board<Section> board, OutputStream out,
+			int cellSize, int wallWidth) throws IOException {
+		new SvgMazeWriter(out, board.getWidth(), board.getHeight(), cellSize,
+				wallWidth).write(board);
+	}
+
+	@Override
+	protected void writeHeader() throws IOException {
+		int imageWidth = getImageWidth();
+		int imageHeight = getImageHeight();
+		// walls are centered on the lines between the cells
+		float offset = wallWidth / 2f;
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\""
+				+ imageWidth + "\" height=\"" + imageHeight
+				+ "\" viewBox=\"0 0 " + imageWidth + " " + imageHeight
+				+ "\">\n");
+		out.write("<rect width=\"" + imageWidth + "\" height=\""
+				+ imageHeight + "\" fill=\"" + toHex(fieldColor) + "\"/>\n");
+		out.write("<g transform=\"translate(" + offset + " " + offset
+				+ ") scale(" + cellSize + ")\" fill=\"none\" stroke=\""
+				+ toHex(wallColor) + "\" stroke-width=\""
+				+ (float) wallWidth / cellSize
+				+ "\" stroke-linecap=\"square\">\n");
+	}
+
+	@Override
+	protected void writeRow(int row, byte[] passages) throws IOException {
+		for (int column = 0; column < width; column++) {
+			if (isStart(row, column)) {
+				writeMarker(row, column, startColor);
+			} else if (isEnd(row, column)) {
+				writeMarker(row, column, endColor);
+			}
+		}
+
+		int column = 0;
+		while (column < width) {
+			int first = column;
+			while (column < width
+					&& (passages[column] & NORTH.getMask()) == 0) {
+				column++;
+			}
+			if (column > first) {
+				lines.append('M').append(first).append(' ').append(row)
+						.append('h').append(column - first);
+			}
+			column++;
+		}
+
+		for (column = 0; column < width; column++) {
+			boolean wall = (passages[column] & WEST.getMask()) == 0;
+			if (wall && runStarts[column] < 0) {
+				runStarts[column] = row;
+			} else if (!wall && runStarts[column] >= 0) {
+				appendRun(column, row);
+			}
+		}
+		writeLines();
+	}
+
+	/**
+	 * Writes the walls still running and those to the east and south.
+	 */
+	@Override
+	protected void writeFooter() throws IOException {
+		for (int column = 0; column < width; column++) {
+			if (runStarts[column] >= 0) {
+				appendRun(column, height);
+			}
+		}
+		lines.append('M').append(width).append(" 0v").append(height);
+		lines.append('M').append(0).append(' ').append(height).append('h')
+				.append(width);
+		writeLines();
+		out.write("</g>\n</svg>\n");
+		out.flush();
+	}
+
+	@Override
+	protected void closeStream() throws IOException {
+		out.close();
+	}
+
+	private void appendRun(int column, int row) {
+		lines.append('M').append(column).append(' ')
+				.append(runStarts[column]).append('v')
+				.append(row - runStarts[column]);
+		runStarts[column] = -1;
+	}
+
+	private void writeLines() throws IOException {
+		if (lines.length() > 0) {
+			out.write("<path d=\"");
+			out.append(lines);
+			out.write("\"/>\n");
+			lines.setLength(0);
+		}
+	}
+
+	/**
+	 * Fills the cell, before its walls are drawn over it.
+	 */
+	private void writeMarker(int row, int column, int color)
+			throws IOException {
+		out.write("<rect x=\"" + column + "\" y=\"" + row
+				+ "\" width=\"1\" height=\"1\" fill=\"" + toHex(color)
+				+ "\" stroke=\"none\"/>\n");
+	}
+
+	private static String toHex(int color) {
+		return String.format("#%06x", color & 0xffffff);
+	}
+
+}
@@ -0,0 +1,143 @@
+package at.brandl.games.maze.solver;
+
+import at.brandl.games.commons.Board;
+
+/**
+ * Searches along the cells with the lowest estimated length of the path,
+ * estimated by the Manhattan distance to the target. Open cells are kept in
+ * a binary heap indexed by cell, so their estimate can be lowered in place.
+ */
+public class AStarSolver extends MazeSolver {
+
+	private final int[] heap;
+	private final int[] heapPositions;
+	private final int[] costs;
+	private final int[] estimates;
+	private int heapSize;
+
+	private int targetRow;
+	private int targetColumn;
+
+	public AStarSolver(Board<?> board) {
+		super(board);
+		heap = new int[size];
+		heapPositions = new int[size];
+		costs = new int[size];
+		estimates = new int[size];
+	}
+
+	@Override
+	protected int search(int from, int to, int[] path) {
+
+		int open = nextMarks(2);
+		int closed = open + 1;
+		targetRow = to / width;
+		targetColumn = to % width;
+		heapSize = 0;
+
+		marks[from] = open;
+		costs[from] = 0;
+		push(from, getHeuristic(from));
+		while (heapSize > 0) {
+			int index = pop();
+			if (index == to) {
+				return writePath(from, to, path);
+			}
+			marks[index] = closed;
+			int cost = costs[index] + 1;
+			int cell = passages[index];
+			for (int orientation = 0; orientation < offsets.length; orientation++) {
+				if ((cell & 1 << orientation) != 0) {
+					int neighbour = index + offsets[orientation];
+					if (marks[neighbour] == closed) {
+						continue;
+					}
+					if (marks[neighbour] != open) {
+						marks[neighbour] = open;
+						costs[neighbour] = cost;
+						parents[neighbour] = index;
+						push(neighbour, cost + getHeuristic(neighbour));
+					} else if (cost < costs[neighbour]) {
+						costs[neighbour] = cost;
+						parents[neighbour] = index;
+						estimates[neighbour] = cost + getHeuristic(neighbour);
+						siftUp(heapPositions[neighbour]);
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	private int getHeuristic(int index) {
+		return Math.abs(index / width - targetRow)
+				+ Math.abs(index % width - targetColumn);
+	}
+
+	private void push(int index, int estimate) {
+		estimates[index] = estimate;
+		heap[heapSize] = index;
+		heapPositions[index] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private int pop() {
+		int first = heap[0];
+		int last = heap[--heapSize];
+		if (heapSize > 0) {
+			heap[0] = last;
+			heapPositions[last] = 0;
+			siftDown(0);
+		}
+		return first;
+	}
+
+	private void siftUp(int position) {
+		int index = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentIndex = heap[parent];
+			if (!isBefore(index, parentIndex)) {
+				break;
+			}
+			heap[position] = parentIndex;
+			heapPositions[parentIndex] = position;
+			position = parent;
+		}
+		heap[position] = index;
+		heapPositions[index] = position;
+	}
+
+	private void siftDown(int position) {
+		int index = heap[position];
+		int half = heapSize >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int childIndex = heap[child];
+			int right = child + 1;
+			if (right < heapSize && isBefore(heap[right], childIndex)) {
+				child = right;
+				childIndex = heap[right];
+			}
+			if (!isBefore(childIndex, index)) {
+				break;
+			}
+			heap[position] = childIndex;
+			heapPositions[childIndex] = position;
+			position = child;
+		}
+		heap[position] = index;
+		heapPositions[index] = position;
+	}
+
+	/**
+	 * Breaks ties in favour of the cell farther from the start, which is
+	 * closer to the target.
+	 */
+	private boolean isBefore(int index, int other) {
+		return estimates[index] < estimates[other]
+				|| estimates[index] == estimates[other]
+				&& costs[index] > costs[other];
+	}
+
+}
@@ -0,0 +1,82 @@
+package at.brandl.games.maze.solver;
+
+import at.brandl.games.commons.Board;
+
+/**
+ * Searches breadth first from both ends, always one level of the smaller
+ * frontier, until the searches meet. There is only one path between two
+ * cells of a perfect maze, so the first meeting gives the shortest path.
+ */
+public class BidirectionalSolver extends MazeSolver {
+
+	/**
+	 * The forward queue grows from the start of the array, the backward
+	 * queue from its end. Every cell is queued by one search only, so they
+	 * never overlap.
+	 */
+	private final int[] queue;
+
+	public BidirectionalSolver(Board<?> board) {
+		super(board);
+		queue = new int[size];
+	}
+
+	@Override
+	protected int search(int from, int to, int[] path) {
+
+		int forward = nextMarks(2);
+		int backward = forward + 1;
+		marks[from] = forward;
+		marks[to] = backward;
+		queue[0] = from;
+		int forwardHead = 0;
+		int forwardTail = 1;
+		queue[size - 1] = to;
+		int backwardHead = size - 1;
+		int backwardTail = size - 2;
+
+		while (forwardHead < forwardTail && backwardHead > backwardTail) {
+			if (forwardTail - forwardHead <= backwardHead - backwardTail) {
+				int levelEnd = forwardTail;
+				while (forwardHead < levelEnd) {
+					int index = queue[forwardHead++];
+					int cell = passages[index];
+					for (int orientation = 0; orientation < offsets.length; orientation++) {
+						if ((cell & 1 << orientation) != 0) {
+							int neighbour = index + offsets[orientation];
+							if (marks[neighbour] == backward) {
+								return writePath(from, index, neighbour, to, path);
+							}
+							if (marks[neighbour] != forward) {
+								marks[neighbour] = forward;
+								parents[neighbour] = index;
+								queue[forwardTail++] = neighbour;
+							}
+						}
+					}
+				}
+			} else {
+				int levelEnd = backwardTail;
+				while (backwardHead > levelEnd) {
+					int index = queue[backwardHead--];
+					int cell = passages[index];
+					for (int orientation = 0; orientation < offsets.length; orientation++) {
+						if ((cell & 1 << orientation) != 0) {
+							int neighbour = index + offsets[orientation];
+							if (marks[neighbour] == forward) {
+								return writePath(from, neighbour, index, to, path);
+							}
+							if (marks[neighbour] != backward) {
+								marks[neighbour] = backward;
+								parents[neighbour] = index;
+								queue[backwardTail--] = neighbour;
+							}
+						}
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+}
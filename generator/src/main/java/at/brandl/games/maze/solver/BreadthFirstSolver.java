@@ -0,0 +1,45 @@
+package at.brandl.games.maze.solver;
+
+import at.brandl.games.commons.Board;
+
+/**
+ * Searches breadth first from the start until the target is reached.
+ */
+public class BreadthFirstSolver extends MazeSolver {
+
+	private final int[] queue;
+
+	public BreadthFirstSolver(Board<?> board) {
+		super(board);
+		queue = new int[size];
+	}
+
+	@Override
+	protected int search(int from, int to, int[] path) {
+
+		int visited = nextMarks(1);
+		marks[from] = visited;
+		queue[0] = from;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int index = queue[head++];
+			int cell = passages[index];
+			for (int orientation = 0; orientation < offsets.length; orientation++) {
+				if ((cell & 1 << orientation) != 0) {
+					int neighbour = index + offsets[orientation];
+					if (marks[neighbour] != visited) {
+						marks[neighbour] = visited;
+						parents[neighbour] = index;
+						if (neighbour == to) {
+							return writePath(from, to, path);
+						}
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,99 @@
+package at.brandl.games.maze.solver;
+
+import at.brandl.games.commons.Board;
+
+/**
+ * Fills dead ends other than start and target until only the path between
+ * them is left, and follows it. The dead ends of the maze are found once
+ * when the solver is created. A query visits every cell, but needs no
+ * queue of open cells, so it pays off on mazes with few long branches.
+ * <p>
+ * Loops are never filled, so the solver needs a perfect maze.
+ */
+public class DeadEndFillingSolver extends MazeSolver {
+
+	private final byte[] degrees;
+	private final byte[] remainingDegrees;
+	private final int[] deadEnds;
+	private final int[] queue;
+
+	public DeadEndFillingSolver(Board<?> board) {
+		super(board);
+		degrees = new byte[size];
+		remainingDegrees = new byte[size];
+		queue = new int[size];
+
+		int deadEndCount = 0;
+		for (int index = 0; index < size; index++) {
+			degrees[index] = (byte) Integer.bitCount(passages[index]);
+			if (degrees[index] == 1) {
+				queue[deadEndCount++] = index;
+			}
+		}
+		deadEnds = new int[deadEndCount];
+		System.arraycopy(queue, 0, deadEnds, 0, deadEndCount);
+	}
+
+	@Override
+	protected int search(int from, int to, int[] path) {
+
+		int filled = nextMarks(1);
+		System.arraycopy(degrees, 0, remainingDegrees, 0, size);
+		int tail = 0;
+		for (int deadEnd : deadEnds) {
+			if (deadEnd != from && deadEnd != to) {
+				marks[deadEnd] = filled;
+				queue[tail++] = deadEnd;
+			}
+		}
+
+		int head = 0;
+		while (head < tail) {
+			int index = queue[head++];
+			int cell = passages[index];
+			for (int orientation = 0; orientation < offsets.length; orientation++) {
+				if ((cell & 1 << orientation) != 0) {
+					int neighbour = index + offsets[orientation];
+					if (marks[neighbour] != filled
+							&& --remainingDegrees[neighbour] == 1
+							&& neighbour != from && neighbour != to) {
+						marks[neighbour] = filled;
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+
+		return followPath(from, to, filled, path);
+	}
+
+	private int followPath(int from, int to, int filled, int[] path) {
+		int length = 0;
+		int previous = -1;
+		int index = from;
+		while (true) {
+			checkPath(length + 1, path);
+			path[length++] = index;
+			if (index == to) {
+				return length;
+			}
+			int next = -1;
+			int cell = passages[index];
+			for (int orientation = 0; orientation < offsets.length; orientation++) {
+				if ((cell & 1 << orientation) != 0) {
+					int neighbour = index + offsets[orientation];
+					if (neighbour != previous && marks[neighbour] != filled) {
+						next = neighbour;
+						break;
+					}
+				}
+			}
+			if (next < 0) {
+				return -1;
+			}
+			previous = index;
+			index = next;
+		}
+	}
+
+}
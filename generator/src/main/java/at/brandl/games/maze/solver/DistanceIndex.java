@@ -0,0 +1,263 @@
+package at.brandl.games.maze.solver;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+
+/**
+ * Answers distance queries on a perfect maze without searching. The maze is
+ * a tree, so the distance between two cells is the sum of their depths less
+ * twice the depth of their lowest common ancestor. The ancestor is found by
+ * a range minimum query over the depths in depth first order: a sparse
+ * table over blocks of 32 cells and a scan inside the two outer blocks, so
+ * the index takes little more memory than the maze itself.
+ * <p>
+ * Cells not connected to the root have no distance to any other cell. The
+ * index is read only once built, so it may be shared by threads.
+ */
+public class DistanceIndex {
+
+	private static final int BLOCK_BITS = 5;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+	private final int size;
+	private final int root;
+
+	/**
+	 * The cells in depth first order and the other way round.
+	 */
+	private final int[] order;
+	private final int[] positions;
+
+	/**
+	 * The depth of the cell at every position of the order.
+	 */
+	private final int[] orderDepths;
+	private final int[] parents;
+	private final int connected;
+
+	/**
+	 * The position of the lowest depth within 2^level blocks starting at
+	 * every block.
+	 */
+	private final int[][] blockMinima;
+
+	/**
+	 * Roots the index at the start of the board or at its first cell if no
+	 * start is set.
+	 */
+	public DistanceIndex(Board<?> board) {
+		this(board, board.getStart() == null ? 0 : board.getStart()
+				.getIndex());
+	}
+
+	public DistanceIndex(Board<?> board, int root) {
+		size = board.getSize();
+		if (root < 0 || root >= size) {
+			throw new Board.FieldNotFoundException(root);
+		}
+		this.root = root;
+		order = new int[size];
+		positions = new int[size];
+		orderDepths = new int[size];
+		parents = new int[size];
+		connected = traverse(board);
+		blockMinima = createBlockMinima();
+	}
+
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the number of steps from the root to the cell or -1 if it is
+	 *         not connected to the root.
+	 */
+	public int getDepth(int cell) {
+		int position = positions[checkCell(cell)];
+		return position < 0 ? -1 : orderDepths[position];
+	}
+
+	/**
+	 * @return the cell farthest from the root the paths from both cells to
+	 *         the root have in common or -1 if one of them is not connected
+	 *         to the root.
+	 */
+	public int getLowestCommonAncestor(int cell, int other) {
+		int position = positions[checkCell(cell)];
+		int otherPosition = positions[checkCell(other)];
+		if (position < 0 || otherPosition < 0) {
+			return -1;
+		}
+		if (position == otherPosition) {
+			return cell;
+		}
+		if (position > otherPosition) {
+			int swap = position;
+			position = otherPosition;
+			otherPosition = swap;
+		}
+		// the shallowest cell after the first one up to the second one is a
+		// child of the common ancestor
+		return parents[order[findMinimum(position + 1, otherPosition)]];
+	}
+
+	/**
+	 * @return the number of steps between the cells or -1 if there is no
+	 *         path between them.
+	 */
+	public int getDistance(int cell, int other) {
+		int ancestor = getLowestCommonAncestor(cell, other);
+		if (ancestor < 0) {
+			return -1;
+		}
+		return getDepth(cell) + getDepth(other) - 2 * getDepth(ancestor);
+	}
+
+	public int getDistance(Field<?> field, Field<?> other) {
+		return getDistance(field.getIndex(), other.getIndex());
+	}
+
+	/**
+	 * Writes the cells of the path from one cell to another into the given
+	 * buffer, starting with <code>from</code> and ending with <code>to</code>.
+	 *
+	 * @return the number of cells of the path or -1 if there is none.
+	 * @throws IllegalArgumentException
+	 *             if the path does not fit into the buffer.
+	 */
+	public int getPath(int from, int to, int[] path) {
+		int ancestor = getLowestCommonAncestor(from, to);
+		if (ancestor < 0) {
+			return -1;
+		}
+		int ancestorDepth = getDepth(ancestor);
+		int up = getDepth(from) - ancestorDepth;
+		int length = up + getDepth(to) - ancestorDepth + 1;
+		if (path.length < length) {
+			throw new IllegalArgumentException("path of " + length
+					+ " cells does not fit into buffer of " + path.length);
+		}
+		for (int i = 0, cell = from; i <= up; i++, cell = parents[cell]) {
+			path[i] = cell;
+		}
+		for (int i = length - 1, cell = to; i > up; i--, cell = parents[cell]) {
+			path[i] = cell;
+		}
+		return length;
+	}
+
+	public int getPath(Field<?> from, Field<?> to, int[] path) {
+		return getPath(from.getIndex(), to.getIndex(), path);
+	}
+
+	/**
+	 * Numbers the cells connected to the root in depth first order, pushing
+	 * the children of a cell on a stack, so every subtree takes a contiguous
+	 * range of positions.
+	 */
+	private int traverse(Board<?> board) {
+		int width = board.getWidth();
+		int[] offsets = { -width, 1, width, -1 };
+		int[] stack = new int[size];
+
+		for (int cell = 0; cell < size; cell++) {
+			positions[cell] = -1;
+		}
+		parents[root] = root;
+		positions[root] = -2;
+		stack[0] = root;
+		int stackSize = 1;
+		int position = 0;
+		// the depth of a pushed cell is kept at its stack slot
+		int[] stackDepths = new int[size];
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+			int depth = stackDepths[stackSize];
+			order[position] = cell;
+			positions[cell] = position;
+			orderDepths[position++] = depth;
+
+			int passages = board.getField(cell).getPassages();
+			for (int orientation = 0; orientation < offsets.length; orientation++) {
+				if ((passages & 1 << orientation) != 0) {
+					int neighbour = cell + offsets[orientation];
+					if (positions[neighbour] == -1) {
+						// pushed, so a loop cannot push it again
+						positions[neighbour] = -2;
+						parents[neighbour] = cell;
+						stackDepths[stackSize] = depth + 1;
+						stack[stackSize++] = neighbour;
+					}
+				}
+			}
+		}
+		return position;
+	}
+
+	private int[][] createBlockMinima() {
+		int blocks = (connected + BLOCK_SIZE - 1) >> BLOCK_BITS;
+		int levels = 32 - Integer.numberOfLeadingZeros(Math.max(blocks, 1));
+		int[][] minima = new int[levels][];
+
+		minima[0] = new int[blocks];
+		for (int block = 0; block < blocks; block++) {
+			int from = block << BLOCK_BITS;
+			minima[0][block] = scan(from,
+					Math.min(from + BLOCK_SIZE, connected) - 1);
+		}
+		for (int level = 1; level < levels; level++) {
+			int span = 1 << level - 1;
+			int count = blocks - (1 << level) + 1;
+			minima[level] = new int[count];
+			for (int block = 0; block < count; block++) {
+				minima[level][block] = lower(minima[level - 1][block],
+						minima[level - 1][block + span]);
+			}
+		}
+		return minima;
+	}
+
+	/**
+	 * @return the position of the lowest depth between the given positions,
+	 *         both included.
+	 */
+	private int findMinimum(int from, int to) {
+		int fromBlock = from >> BLOCK_BITS;
+		int toBlock = to >> BLOCK_BITS;
+		if (fromBlock == toBlock) {
+			return scan(from, to);
+		}
+		int minimum = lower(scan(from, ((fromBlock + 1) << BLOCK_BITS) - 1),
+				scan(toBlock << BLOCK_BITS, to));
+		if (toBlock - fromBlock > 1) {
+			int first = fromBlock + 1;
+			int last = toBlock - 1;
+			int level = 31 - Integer.numberOfLeadingZeros(last - first + 1);
+			minimum = lower(minimum, lower(blockMinima[level][first],
+					blockMinima[level][last - (1 << level) + 1]));
+		}
+		return minimum;
+	}
+
+	private int scan(int from, int to) {
+		int minimum = from;
+		for (int position = from + 1; position <= to; position++) {
+			if (orderDepths[position] < orderDepths[minimum]) {
+				minimum = position;
+			}
+		}
+		return minimum;
+	}
+
+	private int lower(int position, int other) {
+		return orderDepths[other] < orderDepths[position] ? other : position;
+	}
+
+	private int checkCell(int cell) {
+		if (cell < 0 || cell >= size) {
+			throw new Board.FieldNotFoundException(cell);
+		}
+		return cell;
+	}
+
+}
@@ -0,0 +1,237 @@
+package at.brandl.games.maze.solver;
+
+import java.util.Arrays;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeTracer;
+import at.brandl.games.maze.generator.MazeTracer.Tracing;
+
+/**
+ * Answers shortest path queries between arbitrary cells of a maze. The
+ * passages of the maze are copied into one byte per cell when the solver is
+ * created, and all buffers of a query are allocated once, so a query does
+ * not allocate. Cells are addressed by their {@link Field#getIndex() index}
+ * on the board.
+ * <p>
+ * A solver is not thread safe, every thread needs its own.
+ */
+public abstract class MazeSolver {
+
+	public static enum Algorithm {
+
+		BREADTH_FIRST {
+			@Override
+			public MazeSolver create(Board<?> board) {
+				return new BreadthFirstSolver(board);
+			}
+		},
+
+		BIDIRECTIONAL {
+			@Override
+			public MazeSolver create(Board<?> board) {
+				return new BidirectionalSolver(board);
+			}
+		},
+
+		A_STAR {
+			@Override
+			public MazeSolver create(Board<?> board) {
+				return new AStarSolver(board);
+			}
+		},
+
+		DEAD_END_FILLING {
+			@Override
+			public MazeSolver create(Board<?> board) {
+				return new DeadEndFillingSolver(board);
+			}
+		};
+
+		public abstract MazeSolver create(Board<?> board);
+	}
+
+	private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+	private static final MazeTracer TRACER = Tracing.getTracer();
+
+	protected final byte[] passages;
+	protected final int width;
+	protected final int size;
+
+	/**
+	 * The offset of the neighbour index for every orientation, indexed by
+	 * ordinal like the {@link Orientation#getMask() masks}.
+	 */
+	protected final int[] offsets;
+
+	/**
+	 * The predecessor of every cell reached by the current query.
+	 */
+	protected final int[] parents;
+
+	/**
+	 * Cells are marked with a number unique to the current query, so the
+	 * marks need not be cleared between queries.
+	 */
+	protected final int[] marks;
+	private int mark;
+
+	private int[] distancePath;
+
+	protected MazeSolver(Board<?> board) {
+		width = board.getWidth();
+		size = board.getSize();
+		passages = new byte[size];
+		for (int index = 0; index < size; index++) {
+			passages[index] = (byte) board.getField(index).getPassages();
+		}
+
+		offsets = new int[ORIENTATIONS.length];
+		for (Orientation orientation : ORIENTATIONS) {
+			offsets[orientation.ordinal()] = getOffset(orientation);
+		}
+		parents = new int[size];
+		marks = new int[size];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Writes the cells of the shortest path from one cell to another into the
+	 * given buffer, starting with <code>from</code> and ending with
+	 * <code>to</code>.
+	 *
+	 * @return the number of cells of the path or -1 if there is none.
+	 * @throws IllegalArgumentException
+	 *             if the path does not fit into the buffer.
+	 */
+	public int solve(int from, int to, int[] path) {
+		checkCell(from);
+		checkCell(to);
+		if (from == to) {
+			checkPath(1, path);
+			path[0] = from;
+			return 1;
+		}
+		if (TRACER == null) {
+			return search(from, to, path);
+		}
+		Object query = TRACER.startQuery(getClass().getSimpleName(), size,
+				from, to);
+		int length = search(from, to, path);
+		if (query != null) {
+			TRACER.endQuery(query, length);
+		}
+		return length;
+	}
+
+	public int solve(Field<?> from, Field<?> to, int[] path) {
+		return solve(from.getIndex(), to.getIndex(), path);
+	}
+
+	/**
+	 * @return the number of steps from one cell to another or -1 if there is
+	 *         no path between them.
+	 */
+	public int getDistance(int from, int to) {
+		if (distancePath == null) {
+			distancePath = new int[size];
+		}
+		int length = solve(from, to, distancePath);
+		return length < 0 ? -1 : length - 1;
+	}
+
+	protected abstract int search(int from, int to, int[] path);
+
+	/**
+	 * @return a mark not used before, followed by <code>count - 1</code>
+	 *         further unused marks.
+	 */
+	protected final int nextMarks(int count) {
+		if (mark > Integer.MAX_VALUE - count) {
+			Arrays.fill(marks, 0);
+			mark = 0;
+		}
+		int first = mark + 1;
+		mark += count;
+		return first;
+	}
+
+	/**
+	 * Writes the path along the {@link #parents} from <code>from</code> to
+	 * <code>to</code>.
+	 */
+	protected final int writePath(int from, int to, int[] path) {
+		int length = getChainLength(to, from);
+		checkPath(length, path);
+		for (int i = length - 1, index = to; i >= 0; i--, index = parents[index]) {
+			path[i] = index;
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the path of two searches meeting between the neighbours
+	 * <code>left</code>, reached from <code>from</code>, and
+	 * <code>right</code>, reached from <code>to</code>.
+	 */
+	protected final int writePath(int from, int left, int right, int to,
+			int[] path) {
+		int leftLength = getChainLength(left, from);
+		int length = leftLength + getChainLength(right, to);
+		checkPath(length, path);
+		for (int i = leftLength - 1, index = left; i >= 0; i--, index = parents[index]) {
+			path[i] = index;
+		}
+		for (int i = leftLength, index = right; i < length; i++, index = parents[index]) {
+			path[i] = index;
+		}
+		return length;
+	}
+
+	protected final void checkPath(int length, int[] path) {
+		if (path.length < length) {
+			throw new IllegalArgumentException("path of " + length
+					+ " cells does not fit into buffer of " + path.length);
+		}
+	}
+
+	private int getChainLength(int index, int origin) {
+		int length = 1;
+		while (index != origin) {
+			index = parents[index];
+			length++;
+		}
+		return length;
+	}
+
+	private int getOffset(Orientation orientation) {
+		switch (orientation) {
+		case NORTH:
+			return -width;
+		case EAST:
+			return 1;
+		case SOUTH:
+			return width;
+		case WEST:
+			return -1;
+		default:
+			throw new AssertionError("unknown Orientation " + orientation);
+		}
+	}
+
+	private void checkCell(int index) {
+		if (index < 0 || index >= size) {
+			throw new Board.FieldNotFoundException(index);
+		}
+	}
+
+}
@@ -8,6 +8,7 @@ import static at.brandl.games.commons.Orientation.WEST;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -19,6 +20,7 @@ import org.junit.Test;
 
 import at.brandl.games.commons.Board.Field;
 import at.brandl.games.commons.Board.FieldNotFoundException;
+import at.brandl.games.commons.Board.IllegalBoardExcption;
 
 public class BoardTest {
 
@@ -118,6 +120,19 @@ public class BoardTest {
 		
 	}
 	
+	@Test
+	public void neighbourMask() {
+		Field<Content> field = board.getField(0, 1);
+		assertEquals(EAST.getMask() | SOUTH.getMask() | WEST.getMask(),
+				field.getEmptyNeighbourMask());
+		assertEquals(0, field.getNonEmptyNeighbourMask());
+
+		board.getField(1, 1).setContent(new Content());
+		assertEquals(EAST.getMask() | WEST.getMask(),
+				field.getEmptyNeighbourMask());
+		assertEquals(SOUTH.getMask(), field.getNonEmptyNeighbourMask());
+	}
+
 	@Test
 	public void section() {
 		Field<Content> field = board.getField(0, 0);
@@ -140,6 +155,66 @@ public class BoardTest {
 		board.getField(HEIGHT, WIDTH);
 	}
 
+	@Test(expected = FieldNotFoundException.class)
+	public void columnNotFound() {
+		board.getField(0, WIDTH);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyBoard() {
+		new Board<Content>(0, HEIGHT);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void boardTooLarge() {
+		new Board<Content>(70000, 70000);
+	}
+
+	@Test
+	public void index() {
+		Field<Content> field = board.getField(3, 4);
+		assertEquals(3 * WIDTH + 4, field.getIndex());
+		assertSame(field, board.getField(field.getIndex()));
+	}
+
+	@Test
+	public void neighbour() {
+		Field<Content> field = board.getField(0, WIDTH - 1);
+		assertNull(field.getNeighbour(NORTH));
+		assertNull(field.getNeighbour(EAST));
+		assertSame(board.getField(1, WIDTH - 1), field.getNeighbour(SOUTH));
+		assertSame(board.getField(0, WIDTH - 2), field.getNeighbour(WEST));
+	}
+
+	@Test
+	public void passage() {
+		Field<Content> field = board.getField(1, 1);
+		assertEquals(0, field.getPassages());
+
+		field.openPassage(EAST);
+		assertTrue(field.hasPassage(EAST));
+		assertFalse(field.hasPassage(WEST));
+		assertTrue(board.getField(1, 2).hasPassage(WEST));
+		assertEquals(EAST.getMask(), field.getPassages());
+
+		field.setVisited(true);
+		assertEquals(EAST.getMask(), field.getPassages());
+
+		field.clear();
+		assertTrue(field.hasPassage(EAST));
+		assertTrue(board.getField(1, 2).hasPassage(WEST));
+		assertTrue(field.isVisited());
+
+		board.clear();
+		assertEquals(0, field.getPassages());
+		assertEquals(0, board.getField(1, 2).getPassages());
+	}
+
+	@Test(expected = IllegalBoardExcption.class)
+	public void passageThroughBorder() {
+		board.getField(0, 0).openPassage(NORTH);
+	}
+
 	@Test
 	public void northWest() {
 		Collection<Orientation> borders = board.getBorders(board.getField(0, 0));
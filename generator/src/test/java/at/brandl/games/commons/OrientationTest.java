@@ -39,5 +39,13 @@ public class OrientationTest {
 		Assert.assertEquals(SOUTH, NORTH.opposite());
 		Assert.assertEquals(WEST, EAST.opposite());
 	}
-	
+
+	@Test
+	public void first() {
+		Assert.assertNull(Orientation.first(0));
+		Assert.assertEquals(NORTH, Orientation.first(NORTH.getMask() | WEST.getMask()));
+		Assert.assertEquals(SOUTH, Orientation.first(SOUTH.getMask() | WEST.getMask()));
+		Assert.assertEquals(WEST, Orientation.first(WEST.getMask()));
+	}
+
 }
@@ -0,0 +1,169 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.maze.generator.Path.Target.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.MappedMaze.IllegalMazeFileException;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+public class MappedMazeTest {
+
+	private static final int ROWS = 23;
+	private static final int COLUMNS = 17;
+	private static final long SEED = 4711;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void board() throws IOException {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+
+		File file = folder.newFile();
+		MazeWriter.write(board, new FileOutputStream(file));
+		assertEquals(
+				MazeFormat.HEADER_SIZE
+						+ MazeFormat.getDataSize(COLUMNS, ROWS), file.length());
+
+		MappedMaze maze = MappedMaze.open(file);
+		assertEquals(COLUMNS, maze.getWidth());
+		assertEquals(ROWS, maze.getHeight());
+		assertEquals(board.getStart().getRow(), maze.getStartRow());
+		assertEquals(board.getStart().getColumn(), maze.getStartColumn());
+		assertEquals(board.getEnd().getRow(), maze.getEndRow());
+		assertEquals(board.getEnd().getColumn(), maze.getEndColumn());
+		for (Field<Section> field : board.getFields()) {
+			assertEquals(field.getPassages(),
+					maze.getPassages(field.getRow(), field.getColumn()));
+		}
+	}
+
+	@Test
+	public void toBoard() throws IOException {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		File file = folder.newFile();
+		MazeWriter.write(board, new FileOutputStream(file));
+
+		Board<Section> read = MappedMaze.open(file).toBoard();
+		for (Field<Section> field : read.getFields()) {
+			assertEquals(board.getField(field.getIndex()).getPassages(),
+					field.getPassages());
+			Section section = field.getContent();
+			while (section.getTarget(START) != section) {
+				section = section.getTarget(START);
+			}
+			assertSame(read.getStart(), section.getField());
+		}
+		assertEquals(board.getEnd().getIndex(), read.getEnd().getIndex());
+	}
+
+	@Test
+	public void streaming() throws IOException {
+		StreamingMazeGenerator generator = new StreamingMazeGenerator(COLUMNS,
+				ROWS, SEED);
+		File file = folder.newFile();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		MazeWriter writer = new MazeWriter(out, generator);
+		generator.generate(writer);
+		writer.close();
+
+		final MappedMaze maze = MappedMaze.open(file);
+		assertEquals(0, maze.getStartRow());
+		assertEquals(generator.getStartColumn(), maze.getStartColumn());
+		assertEquals(ROWS - 1, maze.getEndRow());
+		assertEquals(generator.getEndColumn(), maze.getEndColumn());
+		generator.generate(new RowListener() {
+			public void rowFinished(int row, byte[] passages) {
+				for (int column = 0; column < COLUMNS; column++) {
+					assertEquals(passages[column],
+							maze.getPassages(row, column));
+				}
+			}
+		});
+	}
+
+	@Test(expected = IllegalMazeFileException.class)
+	public void notAMaze() throws IOException {
+		File file = folder.newFile();
+		OutputStream out = new FileOutputStream(file);
+		out.write(new byte[MazeFormat.HEADER_SIZE]);
+		out.close();
+
+		MappedMaze.open(file);
+	}
+
+	@Test(expected = IllegalMazeFileException.class)
+	public void emptyMaze() throws IOException {
+		File file = folder.newFile();
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		out.writeInt(MazeFormat.MAGIC);
+		out.writeInt(MazeFormat.VERSION);
+		out.writeInt(COLUMNS);
+		out.writeInt(0);
+		out.write(new byte[4 * 4]);
+		out.close();
+
+		MappedMaze.open(file);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void boardWithoutEnd() throws IOException {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		board.setStart(board.getField(0, 0));
+		MazeWriter.write(board, new ByteArrayOutputStream());
+	}
+
+	@Test
+	public void closedIfWritingFails() throws IOException {
+		final boolean[] closed = new boolean[1];
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		try {
+			MazeWriter.write(board, out);
+			fail();
+		} catch (IOException e) {
+			assertTrue(closed[0]);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void incompleteMaze() throws IOException {
+		File file = folder.newFile();
+		MazeWriter writer = new MazeWriter(new FileOutputStream(file),
+				COLUMNS, ROWS, 0, 0, ROWS - 1, COLUMNS - 1);
+		writer.rowFinished(0, new byte[COLUMNS]);
+		writer.close();
+	}
+
+}
@@ -0,0 +1,30 @@
+package at.brandl.games.maze.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.generator.Path.Target;
+
+/**
+ * Helpers shared by the tests of the generators.
+ */
+final class MazeAssert {
+
+	private MazeAssert() {
+	}
+
+	static Field<Section> getFinalTarget(Section section, Target target) {
+		Section targetSection = section.getTarget(target);
+		while (!section.equals(targetSection)) {
+			section = targetSection;
+			targetSection = section.getTarget(target);
+		}
+		return targetSection.getField();
+	}
+
+	static void assertDeadEnd(Field<Section> field) {
+		assertEquals(1, field.getContent().getNeighbours().size());
+	}
+
+}
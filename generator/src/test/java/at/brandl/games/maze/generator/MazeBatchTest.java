@@ -0,0 +1,142 @@
+package at.brandl.games.maze.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.MazeBatch.MazeBatchException;
+import at.brandl.games.maze.generator.MazeBatch.Request;
+import at.brandl.games.maze.generator.MazeBatch.Results;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class MazeBatchTest {
+
+	private static final int MAX_IN_FLIGHT = 3;
+
+	private ExecutorService executor;
+	private List<Request> requests;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(2);
+		requests = new ArrayList<Request>();
+		for (int i = 0; i < 10; i++) {
+			requests.add(new Request(new MazeSpec(10 + i, 20 - i, 5 + i), i));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void sameAsSerial() {
+		Results results = new MazeBatch(executor, MAX_IN_FLIGHT)
+				.generate(requests);
+		for (Request request : requests) {
+			assertTrue(results.hasNext());
+			assertSameMaze(generate(request), results.next());
+		}
+		assertFalse(results.hasNext());
+	}
+
+	@Test
+	public void boundedInFlight() {
+		final List<Runnable> submitted = new ArrayList<Runnable>();
+		Results results = new MazeBatch(new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				submitted.add(command);
+				command.run();
+			}
+		}, MAX_IN_FLIGHT).generate(requests);
+
+		assertEquals(MAX_IN_FLIGHT, submitted.size());
+		results.next();
+		assertEquals(MAX_IN_FLIGHT + 1, submitted.size());
+	}
+
+	@Test
+	public void close() {
+		final List<Runnable> submitted = new ArrayList<Runnable>();
+		Results results = new MazeBatch(new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				submitted.add(command);
+			}
+		}, MAX_IN_FLIGHT).generate(requests);
+		results.close();
+
+		assertFalse(results.hasNext());
+		for (Runnable task : submitted) {
+			assertTrue(((Future<?>) task).isCancelled());
+		}
+	}
+
+	@Test
+	public void closeStopsRunningGeneration() throws InterruptedException {
+		ExecutorService single = Executors.newSingleThreadExecutor();
+		Results results = new MazeBatch(single, 1).generate(Arrays
+				.asList(new Request(new MazeSpec(2000, 2000, 15), 1)));
+		Thread.sleep(100);
+		results.close();
+		single.shutdown();
+		assertTrue(single.awaitTermination(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void failure() {
+		List<Request> requests = new ArrayList<Request>();
+		requests.add(new Request(new MazeSpec(70000, 70000, 5), 1));
+		Results results = new MazeBatch(executor, MAX_IN_FLIGHT)
+				.generate(requests);
+		try {
+			results.next();
+		} catch (MazeBatchException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+			return;
+		}
+		throw new AssertionError("no exception");
+	}
+
+	private Board<Section> generate(Request request) {
+		MazeSpec spec = request.getSpec();
+		Board<Section> board = new Board<Section>(spec.getWidth(),
+				spec.getHeight());
+		MazeGenerator generator = new MazeGenerator(board, request.getSeed());
+		generator.setAverageNumberOfStepsToNextBranch(spec
+				.getAverageNumberOfStepsToNextBranch());
+		generator.generate();
+		return board;
+	}
+
+	private void assertSameMaze(Board<Section> expected, Board<Section> actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		for (int index = 0; index < expected.getSize(); index++) {
+			assertEquals(expected.getField(index).getPassages(), actual
+					.getField(index).getPassages());
+		}
+		assertEquals(expected.getStart().getIndex(), actual.getStart()
+				.getIndex());
+		assertEquals(expected.getEnd().getIndex(), actual.getEnd().getIndex());
+	}
+
+}
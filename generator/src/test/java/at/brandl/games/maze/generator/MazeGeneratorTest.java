@@ -1,11 +1,21 @@
 package at.brandl.games.maze.generator;
 
+import static at.brandl.games.maze.generator.MazeAssert.assertDeadEnd;
+import static at.brandl.games.maze.generator.MazeAssert.getFinalTarget;
 import static at.brandl.games.maze.generator.Path.Target.END;
 import static at.brandl.games.maze.generator.Path.Target.START;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
-
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -13,8 +23,11 @@ import org.junit.Test;
 import at.brandl.games.commons.Board;
 import at.brandl.games.commons.Board.Field;
 import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeGenerator.GenerationCancelledException;
+import at.brandl.games.maze.generator.MazeGenerator.Phase;
+import at.brandl.games.maze.generator.MazeGenerator.PhaseListener;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
 import at.brandl.games.maze.generator.Path.Section;
-import at.brandl.games.maze.generator.Path.Target;
 
 public class MazeGeneratorTest {
 
@@ -148,6 +161,21 @@ public class MazeGeneratorTest {
 		});
 	}
 
+	@Test
+	public void passages() {
+		forEeachField(new FieldAsserter() {
+			public void assertField(Field<Section> field) {
+
+				Section section = field.getContent();
+				for (Orientation orientation : Orientation.values()) {
+					assertEquals(section.hasNeighbour(orientation),
+							field.hasPassage(orientation));
+				}
+
+			}
+		});
+	}
+
 	@Test
 	public void pathToStart() {
 		forEeachSection(new SectionAsserter() {
@@ -173,11 +201,216 @@ public class MazeGeneratorTest {
 		});
 	}
 
+	@Test
+	public void startAndEndAreDeadEnds() {
+		assertDeadEnd(mazeGenerator.getStart());
+		assertDeadEnd(mazeGenerator.getEnd());
+	}
+
+	@Test
+	public void longestPath() {
+		final int length = getDistanceToStart(mazeGenerator.getEnd()
+				.getContent());
+		forEeachSection(new SectionAsserter() {
+			public void assertSection(Section section) {
+
+				assertTrue(getDistanceToStart(section) <= length);
+
+			}
+		});
+	}
+
+	@Test
+	public void fillEmptyFields() {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		MazeGenerator mazeGenerator = new MazeGenerator(board);
+		mazeGenerator.setAverageNumberOfStepsToNextBranch(1000);
+		mazeGenerator.generate();
+
+		assertTrue(board.getEmptyFields().isEmpty());
+	}
+
+	@Test
+	public void sameSeed() {
+		Board<Section> other = new Board<Section>(COLUMNS, ROWS);
+		MazeGenerator otherGenerator = new MazeGenerator(other,
+				mazeGenerator.getSeed());
+		otherGenerator.generate();
+
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < COLUMNS; column++) {
+				assertEquals(board.getField(row, column).getPassages(), other
+						.getField(row, column).getPassages());
+			}
+		}
+		assertEquals(board.getStart().getIndex(), other.getStart().getIndex());
+		assertEquals(board.getEnd().getIndex(), other.getEnd().getIndex());
+	}
+
+	@Test
+	public void differentSeeds() {
+		MazeGenerator other = new MazeGenerator(new Board<Section>(COLUMNS,
+				ROWS));
+		assertNotEquals(mazeGenerator.getSeed(), other.getSeed());
+	}
+
 	@Test
 	public void progress() {
 		assertEquals(100, mazeGenerator.getProgressPcnt());
 	}
-	
+
+	@Test
+	public void progressInWholePercent() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		final List<Phase> phases = new ArrayList<Phase>();
+		MazeGenerator generator = new MazeGenerator(new Board<Section>(100,
+				100));
+		generator.addProgressListener(new ProgressListener() {
+			public void updateProgress(int value) {
+				progress.add(value);
+			}
+		});
+		generator.addPhaseListener(new PhaseListener() {
+			public void phaseStarted(Phase phase) {
+				phases.add(phase);
+			}
+		});
+		generator.generate();
+
+		assertEquals(Arrays.asList(Phase.values()), phases);
+		assertEquals(100, progress.size());
+		for (int i = 0; i < progress.size(); i++) {
+			assertEquals(i + 1, progress.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void progressInterval() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		MazeGenerator generator = new MazeGenerator(new Board<Section>(100,
+				100));
+		generator.setProgressInterval(1, TimeUnit.HOURS);
+		generator.addProgressListener(new ProgressListener() {
+			public void updateProgress(int value) {
+				progress.add(value);
+			}
+		});
+		generator.generate();
+
+		assertEquals(Arrays.asList(1, 100), progress);
+	}
+
+	@Test
+	public void solutionPath() {
+		int[] solutionPath = board.getSolutionPath();
+		assertEquals(board.getStart().getIndex(), solutionPath[0]);
+		assertEquals(board.getEnd().getIndex(),
+				solutionPath[solutionPath.length - 1]);
+		for (int i = 0; i < solutionPath.length - 1; i++) {
+			Orientation step = board.getNextStep(solutionPath[i]);
+			assertTrue(board.getField(solutionPath[i]).hasPassage(step));
+			assertEquals(solutionPath[i + 1],
+					board.getNeighbourIndex(solutionPath[i], step));
+		}
+		assertNull(board.getNextStep(board.getEnd().getIndex()));
+	}
+
+	@Test
+	public void nextStepsLeadToEnd() {
+		for (int index = 0; index < board.getSize(); index++) {
+			int steps = 0;
+			Orientation step;
+			int current = index;
+			while ((step = board.getNextStep(current)) != null) {
+				assertTrue(board.getField(current).hasPassage(step));
+				current = board.getNeighbourIndex(current, step);
+				assertTrue(++steps < board.getSize());
+			}
+			assertEquals(board.getEnd().getIndex(), current);
+		}
+	}
+
+	@Test
+	public void cancel() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		final MazeGenerator generator = new MazeGenerator(new Board<Section>(
+				100, 100));
+		generator.addProgressListener(new ProgressListener() {
+			public void updateProgress(int value) {
+				progress.add(value);
+				if (value == 10) {
+					generator.cancel();
+				}
+			}
+		});
+		try {
+			generator.generate();
+			fail("generation not cancelled");
+		} catch (GenerationCancelledException e) {
+			assertTrue(generator.isCancelled());
+			assertEquals(10, progress.size());
+			assertNull(generator.getEnd());
+		}
+	}
+
+	@Test(expected = GenerationCancelledException.class)
+	public void interrupt() {
+		Thread.currentThread().interrupt();
+		try {
+			new MazeGenerator(new Board<Section>(COLUMNS, ROWS)).generate();
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	public void stats() {
+		GenerationStats stats = new GenerationStats();
+		MazeGenerator generator = new MazeGenerator(new Board<Section>(
+				COLUMNS, ROWS));
+		generator.setStats(stats);
+		generator.generate();
+
+		assertEquals(ROWS * COLUMNS, stats.getCellsPlaced(Phase.BRANCHES)
+				+ stats.getCellsPlaced(Phase.FILL));
+		assertEquals(0, stats.getCellsPlaced(Phase.LONGEST_PATH));
+		for (Phase phase : Phase.values()) {
+			assertTrue(stats.getWallNanos(phase) > 0);
+			if (GenerationStats.isAllocationSupported()) {
+				assertTrue(stats.getAllocatedBytes(phase) > 0);
+			}
+		}
+		assertTrue(stats.getBranches() > 0);
+		assertTrue(stats.getDeadEnds() >= 2);
+		assertTrue(stats.getHoles() <= stats.getCellsPlaced(Phase.FILL));
+	}
+
+	@Test
+	public void statsOfSecondGeneration() {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		MazeGenerator generator = new MazeGenerator(board);
+		generator.setStats(new GenerationStats());
+		generator.generate();
+		board.clear();
+		GenerationStats stats = new GenerationStats();
+		generator.setStats(stats);
+		generator.generate();
+
+		int deadEnds = 0;
+		for (Field<Section> field : board.getFields()) {
+			if (Integer.bitCount(field.getPassages()) == 1) {
+				deadEnds++;
+			}
+		}
+		assertEquals(deadEnds, stats.getDeadEnds());
+		assertTrue(stats.getHoles() <= stats.getCellsPlaced(Phase.FILL));
+	}
+
+	@Test
+	public void noStats() {
+		assertNull(mazeGenerator.getStats());
+	}
+
 	private void forEeachRowAndColumn(RowAndColumnAsserter asserter) {
 		for (int row = 0; row < ROWS; row++) {
 			for (int column = 0; column < COLUMNS; column++) {
@@ -202,13 +435,15 @@ public class MazeGeneratorTest {
 		}
 	}
 
-	private Field<Section> getFinalTarget(Section section, Target target) {
-		Section targetSection = section.getTarget(target);
+	private int getDistanceToStart(Section section) {
+		int distance = 0;
+		Section targetSection = section.getTarget(START);
 		while (!section.equals(targetSection)) {
+			distance++;
 			section = targetSection;
-			targetSection = section.getTarget(target);
+			targetSection = section.getTarget(START);
 		}
-		return targetSection.getField();
+		return distance;
 	}
 
 }
@@ -0,0 +1,178 @@
+package at.brandl.games.maze.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class MazePoolTest {
+
+	private static final int CAPACITY = 3;
+	private static final MazeSpec SPEC = new MazeSpec(12, 14, 10);
+
+	private List<Runnable> refills;
+	private MazePool pool;
+
+	@Before
+	public void setUp() {
+		refills = new ArrayList<Runnable>();
+		pool = new MazePool(CAPACITY, new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				refills.add(command);
+			}
+		});
+	}
+
+	@Test
+	public void generateIfEmpty() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		Board<Section> board = pool.get(SPEC, new ProgressListener() {
+
+			@Override
+			public void updateProgress(int value) {
+				progress.add(value);
+			}
+		});
+
+		assertMaze(board);
+		assertEquals(Integer.valueOf(100), progress.get(progress.size() - 1));
+	}
+
+	@Test
+	public void progressInterval() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		pool.setProgressInterval(1, TimeUnit.HOURS);
+		pool.get(SPEC, new ProgressListener() {
+
+			@Override
+			public void updateProgress(int value) {
+				progress.add(value);
+			}
+		});
+
+		assertEquals(2, progress.size());
+		assertEquals(Integer.valueOf(100), progress.get(1));
+	}
+
+	@Test
+	public void refillAfterGet() {
+		pool.get(SPEC);
+		assertEquals(1, refills.size());
+		assertEquals(0, pool.getAvailable(SPEC));
+
+		runRefills();
+		assertEquals(CAPACITY, pool.getAvailable(SPEC));
+	}
+
+	@Test
+	public void serveFromPool() {
+		pool.prefetch(SPEC);
+		runRefills();
+
+		Board<Section> first = pool.get(SPEC);
+		Board<Section> second = pool.get(SPEC);
+		assertMaze(first);
+		assertMaze(second);
+		assertNotSame(first, second);
+		assertEquals(CAPACITY - 2, pool.getAvailable(SPEC));
+	}
+
+	@Test
+	public void oneRefillAtATime() {
+		pool.prefetch(SPEC);
+		pool.prefetch(SPEC);
+		pool.get(SPEC);
+		assertEquals(1, refills.size());
+	}
+
+	@Test
+	public void noRefillIfFull() {
+		pool.prefetch(SPEC);
+		runRefills();
+		pool.prefetch(SPEC);
+		assertTrue(refills.isEmpty());
+	}
+
+	@Test
+	public void separateSpecs() {
+		MazeSpec other = new MazeSpec(12, 14, 20);
+		pool.prefetch(SPEC);
+		runRefills();
+		assertEquals(0, pool.getAvailable(other));
+		assertEquals(CAPACITY, pool.getAvailable(new MazeSpec(12, 14, 10)));
+	}
+
+	@Test
+	public void rejectedRefill() {
+		final List<Runnable> accepted = new ArrayList<Runnable>();
+		MazePool rejecting = new MazePool(CAPACITY, new Executor() {
+
+			private boolean rejected;
+
+			@Override
+			public void execute(Runnable command) {
+				if (!rejected) {
+					rejected = true;
+					throw new RejectedExecutionException();
+				}
+				accepted.add(command);
+			}
+		});
+
+		try {
+			rejecting.prefetch(SPEC);
+			fail("refill not rejected");
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+		rejecting.prefetch(SPEC);
+		assertEquals(1, accepted.size());
+	}
+
+	@Test
+	public void getAfterShutdown() {
+		MazePool shutDown = new MazePool(CAPACITY);
+		shutDown.shutdown();
+		assertMaze(shutDown.get(SPEC));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noCapacity() {
+		new MazePool(0);
+	}
+
+	private void runRefills() {
+		while (!refills.isEmpty()) {
+			refills.remove(0).run();
+		}
+	}
+
+	private void assertMaze(Board<Section> board) {
+		assertEquals(SPEC.getWidth(), board.getWidth());
+		assertEquals(SPEC.getHeight(), board.getHeight());
+		assertNotNull(board.getStart());
+		assertNotNull(board.getEnd());
+		for (Field<Section> field : board.getFields()) {
+			assertFalse(field.isEmpty());
+		}
+	}
+
+}
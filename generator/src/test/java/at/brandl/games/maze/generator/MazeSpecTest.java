@@ -0,0 +1,31 @@
+package at.brandl.games.maze.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MazeSpecTest {
+
+	@Test
+	public void equalSpecs() {
+		assertEquals(new MazeSpec(12, 14, 10), new MazeSpec(12, 14, 10));
+		assertEquals(new MazeSpec(12, 14, 10).hashCode(), new MazeSpec(12,
+				14, 10).hashCode());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noWidth() {
+		new MazeSpec(0, 14, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeHeight() {
+		new MazeSpec(12, -1, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noStepsToNextBranch() {
+		new MazeSpec(12, 14, 0);
+	}
+
+}
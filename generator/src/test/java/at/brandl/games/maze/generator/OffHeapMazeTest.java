@@ -0,0 +1,107 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.SOUTH;
+import static at.brandl.games.commons.Orientation.WEST;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import at.brandl.games.commons.Board.IllegalBoardExcption;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+public class OffHeapMazeTest {
+
+	private static final int ROWS = 31;
+	private static final int COLUMNS = 13;
+	private static final long SEED = 4711;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void openPassage() {
+		OffHeapMaze maze = OffHeapMaze.allocate(COLUMNS, ROWS);
+		assertEquals(0, maze.getPassages(1, 1));
+
+		maze.openPassage(1, 1, NORTH);
+		maze.openPassage(1, 1, WEST);
+		assertEquals(NORTH.getMask() | WEST.getMask(), maze.getPassages(1, 1));
+		assertEquals(SOUTH.getMask(), maze.getPassages(0, 1));
+		assertEquals(EAST.getMask(), maze.getPassages(1, 0));
+	}
+
+	@Test(expected = IllegalBoardExcption.class)
+	public void passageThroughBorder() {
+		OffHeapMaze.allocate(COLUMNS, ROWS).openPassage(ROWS - 1, 0, SOUTH);
+	}
+
+	@Test
+	public void allocate() throws IOException {
+		StreamingMazeGenerator generator = new StreamingMazeGenerator(COLUMNS,
+				ROWS, SEED);
+		OffHeapMaze maze = OffHeapMaze.allocate(generator);
+		generator.generate(maze);
+		assertRows(generator, maze);
+
+		File file = folder.newFile();
+		FileOutputStream out = new FileOutputStream(file);
+		maze.writeTo(out.getChannel());
+		out.close();
+		assertMaze(generator, file);
+	}
+
+	@Test
+	public void create() throws IOException {
+		StreamingMazeGenerator generator = new StreamingMazeGenerator(COLUMNS,
+				ROWS, SEED);
+		File file = folder.newFile();
+		OffHeapMaze maze = OffHeapMaze.create(file, generator);
+		generator.generate(maze);
+		maze.force();
+
+		assertMaze(generator, file);
+	}
+
+	@Test
+	public void startAndEnd() {
+		OffHeapMaze maze = OffHeapMaze.allocate(COLUMNS, ROWS);
+		maze.setStart(0, 3);
+		maze.setEnd(ROWS - 1, 5);
+		assertEquals(0, maze.getStartRow());
+		assertEquals(3, maze.getStartColumn());
+		assertEquals(ROWS - 1, maze.getEndRow());
+		assertEquals(5, maze.getEndColumn());
+	}
+
+	private void assertMaze(StreamingMazeGenerator generator, File file)
+			throws IOException {
+		MappedMaze maze = MappedMaze.open(file);
+		assertEquals(COLUMNS, maze.getWidth());
+		assertEquals(ROWS, maze.getHeight());
+		assertEquals(generator.getStartColumn(), maze.getStartColumn());
+		assertEquals(ROWS - 1, maze.getEndRow());
+		assertEquals(generator.getEndColumn(), maze.getEndColumn());
+		assertRows(generator, maze);
+	}
+
+	private void assertRows(StreamingMazeGenerator generator,
+			final MappedMaze maze) {
+		generator.generate(new RowListener() {
+			public void rowFinished(int row, byte[] passages) {
+				for (int column = 0; column < COLUMNS; column++) {
+					assertEquals(passages[column],
+							maze.getPassages(row, column));
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,140 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.maze.generator.MazeAssert.assertDeadEnd;
+import static at.brandl.games.maze.generator.MazeAssert.getFinalTarget;
+import static at.brandl.games.maze.generator.Path.Target.END;
+import static at.brandl.games.maze.generator.Path.Target.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class ParallelMazeGeneratorTest {
+
+	private static final int ROWS = 50;
+	private static final int COLUMNS = 70;
+	private static final int TILE_SIZE = 16;
+	private static final long SEED = 4711;
+
+	private Board<Section> board;
+	private ParallelMazeGenerator mazeGenerator;
+	private final List<ForkJoinPool> pools = new ArrayList<ForkJoinPool>();
+
+	@Before
+	public void setUp() {
+		board = generate(createPool(4));
+	}
+
+	@After
+	public void tearDown() {
+		for (ForkJoinPool pool : pools) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void fieldNotEmpty() {
+		for (Field<Section> field : board.getFields()) {
+			assertFalse(field.isEmpty());
+		}
+	}
+
+	@Test
+	public void spanningTree() {
+		int passages = 0;
+		for (Field<Section> field : board.getFields()) {
+			for (Orientation orientation : Orientation.values()) {
+				if (field.hasPassage(orientation)) {
+					passages++;
+				}
+				assertEquals(field.getContent().hasNeighbour(orientation),
+						field.hasPassage(orientation));
+			}
+		}
+		assertEquals(ROWS * COLUMNS - 1, passages / 2);
+	}
+
+	@Test
+	public void pathToStartAndEnd() {
+		for (Field<Section> field : board.getFields()) {
+			assertSame(mazeGenerator.getStart(),
+					getFinalTarget(field.getContent(), START));
+			assertSame(mazeGenerator.getEnd(),
+					getFinalTarget(field.getContent(), END));
+		}
+	}
+
+	@Test
+	public void startAndEndAreDeadEnds() {
+		assertDeadEnd(mazeGenerator.getStart());
+		assertDeadEnd(mazeGenerator.getEnd());
+	}
+
+	@Test
+	public void sameSeed() {
+		Board<Section> other = generate(createPool(2));
+		for (int index = 0; index < board.getSize(); index++) {
+			assertEquals(board.getField(index).getPassages(), other
+					.getField(index).getPassages());
+		}
+		assertEquals(board.getStart().getIndex(), other.getStart().getIndex());
+		assertEquals(board.getEnd().getIndex(), other.getEnd().getIndex());
+	}
+
+	@Test
+	public void boardSmallerThanTile() {
+		Board<Section> small = new Board<Section>(5, 3);
+		new ParallelMazeGenerator(small, SEED).generate();
+		for (Field<Section> field : small.getFields()) {
+			assertFalse(field.isEmpty());
+		}
+	}
+
+	@Test
+	public void progress() {
+		final List<Integer> progress = new ArrayList<Integer>();
+		ParallelMazeGenerator generator = new ParallelMazeGenerator(
+				new Board<Section>(COLUMNS, ROWS), SEED, createPool(4));
+		generator.setTileSize(TILE_SIZE);
+		generator.addProgressListener(new ProgressListener() {
+			public void updateProgress(int value) {
+				progress.add(value);
+			}
+		});
+		generator.generate();
+
+		for (int i = 1; i < progress.size(); i++) {
+			assertTrue(progress.get(i - 1) < progress.get(i));
+		}
+		assertEquals(Integer.valueOf(100), progress.get(progress.size() - 1));
+	}
+
+	private Board<Section> generate(ForkJoinPool pool) {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		mazeGenerator = new ParallelMazeGenerator(board, SEED, pool);
+		mazeGenerator.setTileSize(TILE_SIZE);
+		mazeGenerator.generate();
+		return board;
+	}
+
+	private ForkJoinPool createPool(int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		pools.add(pool);
+		return pool;
+	}
+
+}
@@ -7,6 +7,8 @@ import static at.brandl.games.commons.Orientation.EAST;
 import static at.brandl.games.commons.Orientation.NORTH;
 import static at.brandl.games.commons.Orientation.SOUTH;
 import static at.brandl.games.commons.Orientation.WEST;
+import static at.brandl.games.maze.generator.Path.Target.END;
+import static at.brandl.games.maze.generator.Path.Target.START;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -127,5 +129,48 @@ public class PathTest {
 		Path other = new Path(SOUTH, path.getEnd(), path.getStart());
 		assertEquals(path, other);
 	}
-	
+
+	@Test
+	public void target() {
+		Path path = new Path(NORTH);
+		Section start = path.getStart();
+		Section middle = path.go(AHEAD).getEnd();
+		Section end = path.go(AHEAD).getEnd();
+
+		start.setTarget(START, start);
+		assertSame(start, start.getTarget(START));
+		assertSame(start, middle.getTarget(START));
+		assertSame(middle, end.getTarget(START));
+
+		Section next = path.go(AHEAD).getEnd();
+		assertSame(end, next.getTarget(START));
+	}
+
+	@Test
+	public void targetAlongLongCorridor() {
+		Path path = new Path(NORTH);
+		for (int i = 0; i < 100000; i++) {
+			path.go(i % 2 == 0 ? LEFT : RIGHT);
+		}
+		Section start = path.getStart();
+		start.setTarget(START, start);
+
+		int length = 0;
+		Section section = path.getEnd();
+		while (section != start) {
+			section = section.getTarget(START);
+			length++;
+		}
+		assertEquals(100000, length);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void connectTwoTargets() {
+		Path path = new Path(NORTH);
+		path.getStart().setTarget(END, path.getStart());
+		Section section = new Section();
+		section.setTarget(END, section);
+		path.connect(NORTH, section);
+	}
+
 }
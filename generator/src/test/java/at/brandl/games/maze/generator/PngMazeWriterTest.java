@@ -0,0 +1,131 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.WEST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class PngMazeWriterTest {
+
+	private static final int ROWS = 23;
+	private static final int COLUMNS = 17;
+	private static final long SEED = 4711;
+	private static final int CELL_SIZE = 6;
+	private static final int WALL_WIDTH = 2;
+
+	private static final int WALL = 0x000000;
+	private static final int FIELD = 0xffffff;
+	private static final int START = 0x0000ff;
+	private static final int END = 0x00ff00;
+
+	@Test
+	public void board() throws IOException {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PngMazeWriter.write(board, out, CELL_SIZE, WALL_WIDTH);
+
+		BufferedImage image = read(out);
+		assertEquals(COLUMNS * CELL_SIZE + WALL_WIDTH, image.getWidth());
+		assertEquals(ROWS * CELL_SIZE + WALL_WIDTH, image.getHeight());
+		for (Field<Section> field : board.getFields()) {
+			int left = field.getColumn() * CELL_SIZE;
+			int top = field.getRow() * CELL_SIZE;
+			int inside = CELL_SIZE - 1;
+
+			assertEquals(WALL, getColor(image, left, top));
+			assertEquals(field.hasPassage(NORTH) ? FIELD : WALL,
+					getColor(image, left + inside, top + WALL_WIDTH - 1));
+			assertEquals(field.hasPassage(WEST) ? FIELD : WALL,
+					getColor(image, left + WALL_WIDTH - 1, top + inside));
+
+			int color = FIELD;
+			if (field.equals(board.getStart())) {
+				color = START;
+			} else if (field.equals(board.getEnd())) {
+				color = END;
+			}
+			assertEquals(color,
+					getColor(image, left + WALL_WIDTH, top + WALL_WIDTH));
+			assertEquals(color, getColor(image, left + inside, top + inside));
+		}
+		assertEquals(WALL,
+				getColor(image, image.getWidth() - 1, image.getHeight() - 1));
+	}
+
+	@Test
+	public void stream() throws IOException {
+		StreamingMazeGenerator generator = new StreamingMazeGenerator(
+				COLUMNS, ROWS, SEED);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PngMazeWriter writer = new PngMazeWriter(out, generator, CELL_SIZE,
+				WALL_WIDTH);
+		generator.generate(writer);
+		writer.close();
+
+		BufferedImage image = read(out);
+		assertEquals(writer.getImageWidth(), image.getWidth());
+		assertEquals(writer.getImageHeight(), image.getHeight());
+		assertEquals(START, getColor(image, generator.getStartColumn()
+				* CELL_SIZE + WALL_WIDTH, WALL_WIDTH));
+		assertEquals(END, getColor(image, generator.getEndColumn()
+				* CELL_SIZE + WALL_WIDTH, (ROWS - 1) * CELL_SIZE + WALL_WIDTH));
+	}
+
+	@Test
+	public void closedIfWritingFails() {
+		final boolean[] closed = new boolean[1];
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		try {
+			PngMazeWriter.write(board, out, CELL_SIZE, WALL_WIDTH);
+			fail();
+		} catch (IOException e) {
+			assertTrue(closed[0]);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void missingRows() throws IOException {
+		PngMazeWriter writer = new PngMazeWriter(new ByteArrayOutputStream(),
+				COLUMNS, ROWS, CELL_SIZE, WALL_WIDTH);
+		writer.rowFinished(0, new byte[COLUMNS]);
+		writer.close();
+	}
+
+	private static BufferedImage read(ByteArrayOutputStream out)
+			throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static int getColor(BufferedImage image, int x, int y) {
+		return image.getRGB(x, y) & 0xffffff;
+	}
+
+}
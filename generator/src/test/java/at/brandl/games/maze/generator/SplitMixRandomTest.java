@@ -0,0 +1,61 @@
+package at.brandl.games.maze.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SplitMixRandomTest {
+
+	private static final long SEED = 4711;
+
+	@Test
+	public void sameSeed() {
+		SplitMixRandom random = new SplitMixRandom(SEED);
+		SplitMixRandom other = new SplitMixRandom(SEED);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(random.nextLong(), other.nextLong());
+			assertEquals(random.nextInt(15), other.nextInt(15));
+		}
+	}
+
+	@Test
+	public void differentSeeds() {
+		assertNotEquals(new SplitMixRandom(SEED).nextLong(),
+				new SplitMixRandom(SEED + 1).nextLong());
+	}
+
+	@Test
+	public void createSeed() {
+		assertNotEquals(SplitMixRandom.createSeed(),
+				SplitMixRandom.createSeed());
+	}
+
+	@Test
+	public void split() {
+		SplitMixRandom random = new SplitMixRandom(SEED);
+		SplitMixRandom split = random.split();
+		assertNotEquals(random.nextLong(), split.nextLong());
+
+		SplitMixRandom other = new SplitMixRandom(SEED).split();
+		assertEquals(new SplitMixRandom(SEED).split().nextLong(),
+				other.nextLong());
+	}
+
+	@Test
+	public void bound() {
+		SplitMixRandom random = new SplitMixRandom(SEED);
+		boolean[] seen = new boolean[7];
+		for (int i = 0; i < 1000; i++) {
+			int value = random.nextInt(seen.length);
+			assertTrue(value >= 0 && value < seen.length);
+			seen[value] = true;
+		}
+		for (boolean value : seen) {
+			assertTrue(value);
+		}
+		assertEquals(0, random.nextInt(1));
+	}
+
+}
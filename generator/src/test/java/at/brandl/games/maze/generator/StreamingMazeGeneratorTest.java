@@ -0,0 +1,140 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.SOUTH;
+import static at.brandl.games.commons.Orientation.WEST;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.StreamingMazeGenerator.RowListener;
+
+public class StreamingMazeGeneratorTest {
+
+	private static class RowCollector implements RowListener {
+
+		private final byte[][] rows;
+		private int nextRow;
+
+		private RowCollector(int height) {
+			rows = new byte[height][];
+		}
+
+		public void rowFinished(int row, byte[] passages) {
+			assertEquals(nextRow++, row);
+			rows[row] = passages.clone();
+		}
+	}
+
+	private static final int ROWS = 40;
+	private static final int COLUMNS = 30;
+	private static final long SEED = 4711;
+
+	private StreamingMazeGenerator mazeGenerator;
+	private byte[][] rows;
+
+	@Before
+	public void setUp() {
+		mazeGenerator = new StreamingMazeGenerator(COLUMNS, ROWS, SEED);
+		rows = generate(mazeGenerator);
+	}
+
+	@Test
+	public void allRows() {
+		assertEquals(ROWS, rows.length);
+		for (byte[] row : rows) {
+			assertEquals(COLUMNS, row.length);
+		}
+	}
+
+	@Test
+	public void passagesMatchNeighbours() {
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < COLUMNS; column++) {
+				assertEquals(hasPassage(row, column, EAST),
+						column < COLUMNS - 1
+								&& hasPassage(row, column + 1, WEST));
+				assertEquals(hasPassage(row, column, SOUTH), row < ROWS - 1
+						&& hasPassage(row + 1, column, NORTH));
+			}
+			assertTrue(!hasPassage(row, 0, WEST));
+		}
+		for (int column = 0; column < COLUMNS; column++) {
+			assertTrue(!hasPassage(0, column, NORTH));
+		}
+	}
+
+	@Test
+	public void perfectMaze() {
+		int[] parents = new int[ROWS * COLUMNS];
+		for (int index = 0; index < parents.length; index++) {
+			parents[index] = index;
+		}
+		int passages = 0;
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < COLUMNS; column++) {
+				int index = row * COLUMNS + column;
+				if (hasPassage(row, column, EAST)) {
+					passages++;
+					assertTrue(union(parents, index, index + 1));
+				}
+				if (hasPassage(row, column, SOUTH)) {
+					passages++;
+					assertTrue(union(parents, index, index + COLUMNS));
+				}
+			}
+		}
+		assertEquals(ROWS * COLUMNS - 1, passages);
+	}
+
+	@Test
+	public void sameSeed() {
+		StreamingMazeGenerator other = new StreamingMazeGenerator(COLUMNS,
+				ROWS, SEED);
+		byte[][] otherRows = generate(other);
+		for (int row = 0; row < ROWS; row++) {
+			assertArrayEquals(rows[row], otherRows[row]);
+		}
+		assertEquals(mazeGenerator.getStartColumn(), other.getStartColumn());
+		assertEquals(mazeGenerator.getEndColumn(), other.getEndColumn());
+	}
+
+	@Test
+	public void singleRow() {
+		byte[][] row = generate(new StreamingMazeGenerator(COLUMNS, 1, SEED));
+		for (int column = 0; column < COLUMNS - 1; column++) {
+			assertTrue((row[0][column] & EAST.getMask()) != 0);
+		}
+	}
+
+	private byte[][] generate(StreamingMazeGenerator generator) {
+		RowCollector collector = new RowCollector(generator.getHeight());
+		generator.generate(collector);
+		return collector.rows;
+	}
+
+	private boolean hasPassage(int row, int column,
+			Orientation orientation) {
+		return (rows[row][column] & orientation.getMask()) != 0;
+	}
+
+	private boolean union(int[] parents, int index, int other) {
+		int root = findRoot(parents, index);
+		int otherRoot = findRoot(parents, other);
+		parents[root] = otherRoot;
+		return root != otherRoot;
+	}
+
+	private int findRoot(int[] parents, int index) {
+		while (parents[index] != index) {
+			index = parents[index];
+		}
+		return index;
+	}
+
+}
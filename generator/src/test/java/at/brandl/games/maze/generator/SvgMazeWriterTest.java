@@ -0,0 +1,79 @@
+package at.brandl.games.maze.generator;
+
+import static at.brandl.games.commons.Orientation.NORTH;
+import static at.brandl.games.commons.Orientation.WEST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.Field;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class SvgMazeWriterTest {
+
+	private static final int ROWS = 23;
+	private static final int COLUMNS = 17;
+	private static final long SEED = 4711;
+	private static final int CELL_SIZE = 10;
+	private static final int WALL_WIDTH = 2;
+
+	private static final Pattern LINE = Pattern
+			.compile("M(\\d+) (\\d+)([hv])(\\d+)");
+
+	@Test
+	public void board() throws Exception {
+		Board<Section> board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SvgMazeWriter.write(board, out, CELL_SIZE, WALL_WIDTH);
+
+		Document document = DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder()
+				.parse(new ByteArrayInputStream(out.toByteArray()));
+		Element svg = document.getDocumentElement();
+		assertEquals(String.valueOf(COLUMNS * CELL_SIZE + WALL_WIDTH),
+				svg.getAttribute("width"));
+		assertEquals(String.valueOf(ROWS * CELL_SIZE + WALL_WIDTH),
+				svg.getAttribute("height"));
+
+		int walls = COLUMNS + ROWS;
+		for (Field<Section> field : board.getFields()) {
+			if (!field.hasPassage(NORTH)) {
+				walls++;
+			}
+			if (!field.hasPassage(WEST)) {
+				walls++;
+			}
+		}
+
+		NodeList paths = document.getElementsByTagName("path");
+		assertTrue(paths.getLength() <= ROWS + 1);
+		int length = 0;
+		int lines = 0;
+		for (int i = 0; i < paths.getLength(); i++) {
+			Matcher matcher = LINE.matcher(((Element) paths.item(i))
+					.getAttribute("d"));
+			while (matcher.find()) {
+				length += Integer.parseInt(matcher.group(4));
+				lines++;
+			}
+		}
+		// every wall is drawn exactly once, neighbouring walls as one line
+		assertEquals(walls, length);
+		assertTrue(lines < walls);
+		assertEquals(2, document.getElementsByTagName("rect").getLength() - 1);
+	}
+
+}
@@ -0,0 +1,100 @@
+package at.brandl.games.maze.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeGenerator;
+import at.brandl.games.maze.generator.Path.Section;
+
+public class DistanceIndexTest {
+
+	private static final int ROWS = 45;
+	private static final int COLUMNS = 60;
+	private static final long SEED = 4711;
+
+	private Board<Section> board;
+	private DistanceIndex index;
+	private MazeSolver solver;
+	private int[] path;
+
+	@Before
+	public void setUp() {
+		board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		index = new DistanceIndex(board);
+		solver = new BreadthFirstSolver(board);
+		path = new int[board.getSize()];
+	}
+
+	@Test
+	public void root() {
+		int start = board.getStart().getIndex();
+		assertEquals(start, index.getRoot());
+		assertEquals(0, index.getDepth(start));
+		assertEquals(start, index.getLowestCommonAncestor(start,
+				board.getEnd().getIndex()));
+	}
+
+	@Test
+	public void sameAsSolver() {
+		Random random = new Random(SEED);
+		int[] expected = new int[board.getSize()];
+		for (int query = 0; query < 2000; query++) {
+			int from = random.nextInt(board.getSize());
+			int to = random.nextInt(board.getSize());
+			int length = solver.solve(from, to, expected);
+
+			assertEquals(length - 1, index.getDistance(from, to));
+			assertEquals(length, index.getPath(from, to, path));
+			assertArrayEquals(Arrays.copyOf(expected, length),
+					Arrays.copyOf(path, length));
+		}
+	}
+
+	@Test
+	public void depth() {
+		for (int cell = 0; cell < board.getSize(); cell++) {
+			assertEquals(solver.getDistance(index.getRoot(), cell),
+					index.getDepth(cell));
+		}
+	}
+
+	@Test
+	public void sameCell() {
+		assertEquals(0, index.getDistance(7, 7));
+		assertEquals(1, index.getPath(7, 7, path));
+		assertEquals(7, path[0]);
+	}
+
+	@Test
+	public void notConnected() {
+		Board<Section> walls = new Board<Section>(3, 3);
+		walls.getField(0, 0).openPassage(Orientation.EAST);
+		DistanceIndex index = new DistanceIndex(walls);
+		assertEquals(1, index.getDistance(0, 1));
+		assertEquals(-1, index.getDepth(8));
+		assertEquals(-1, index.getDistance(0, 8));
+		assertEquals(-1, index.getPath(8, 1, path));
+	}
+
+	@Test
+	public void singleCell() {
+		DistanceIndex index = new DistanceIndex(new Board<Section>(1, 1));
+		assertEquals(0, index.getDistance(0, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bufferTooSmall() {
+		index.getPath(board.getStart().getIndex(), board.getEnd().getIndex(),
+				new int[1]);
+	}
+
+}
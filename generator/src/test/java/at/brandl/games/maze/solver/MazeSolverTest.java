@@ -0,0 +1,137 @@
+package at.brandl.games.maze.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.commons.Board.FieldNotFoundException;
+import at.brandl.games.commons.Orientation;
+import at.brandl.games.maze.generator.MazeGenerator;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.solver.MazeSolver.Algorithm;
+
+@RunWith(Parameterized.class)
+public class MazeSolverTest {
+
+	private static final int ROWS = 30;
+	private static final int COLUMNS = 40;
+	private static final long SEED = 4711;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> algorithms() {
+		Collection<Object[]> algorithms = new ArrayList<Object[]>();
+		for (Algorithm algorithm : Algorithm.values()) {
+			algorithms.add(new Object[] { algorithm });
+		}
+		return algorithms;
+	}
+
+	private final Algorithm algorithm;
+	private Board<Section> board;
+	private MazeSolver solver;
+	private MazeSolver reference;
+	private int[] path;
+
+	public MazeSolverTest(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	@Before
+	public void setUp() {
+		board = new Board<Section>(COLUMNS, ROWS);
+		new MazeGenerator(board, SEED).generate();
+		solver = algorithm.create(board);
+		reference = Algorithm.BREADTH_FIRST.create(board);
+		path = new int[board.getSize()];
+	}
+
+	@Test
+	public void startToEnd() {
+		int from = board.getStart().getIndex();
+		int to = board.getEnd().getIndex();
+		int length = solver.solve(from, to, path);
+
+		assertEquals(from, path[0]);
+		assertEquals(to, path[length - 1]);
+		assertConnected(length);
+	}
+
+	@Test
+	public void sameAsBreadthFirst() {
+		Random random = new Random(SEED);
+		int[] expected = new int[board.getSize()];
+		for (int query = 0; query < 200; query++) {
+			int from = random.nextInt(board.getSize());
+			int to = random.nextInt(board.getSize());
+			int length = solver.solve(from, to, path);
+
+			assertEquals(reference.solve(from, to, expected), length);
+			assertArrayEquals(Arrays.copyOf(expected, length),
+					Arrays.copyOf(path, length));
+			assertEquals(length - 1, solver.getDistance(from, to));
+		}
+	}
+
+	@Test
+	public void sameCell() {
+		assertEquals(1, solver.solve(5, 5, path));
+		assertEquals(5, path[0]);
+		assertEquals(0, solver.getDistance(5, 5));
+	}
+
+	@Test
+	public void neighbours() {
+		int from = board.getStart().getIndex();
+		solver.solve(from, board.getEnd().getIndex(), path);
+		int to = path[1];
+		assertEquals(2, solver.solve(from, to, path));
+		assertEquals(1, solver.getDistance(to, from));
+	}
+
+	@Test
+	public void noPath() {
+		Board<Section> walls = new Board<Section>(3, 3);
+		walls.getField(0, 0).openPassage(Orientation.EAST);
+		MazeSolver solver = algorithm.create(walls);
+		assertEquals(-1, solver.solve(0, 8, path));
+		assertEquals(-1, solver.getDistance(8, 1));
+		assertEquals(2, solver.solve(0, 1, path));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bufferTooSmall() {
+		solver.solve(board.getStart().getIndex(), board.getEnd().getIndex(),
+				new int[2]);
+	}
+
+	@Test(expected = FieldNotFoundException.class)
+	public void cellNotFound() {
+		solver.solve(0, board.getSize(), path);
+	}
+
+	private void assertConnected(int length) {
+		for (int i = 1; i < length; i++) {
+			boolean connected = false;
+			for (Orientation orientation : Orientation.values()) {
+				if (board.getNeighbourIndex(path[i - 1], orientation) == path[i]) {
+					connected = board.getField(path[i - 1]).hasPassage(
+							orientation);
+				}
+			}
+			assertTrue(connected);
+		}
+	}
+
+}
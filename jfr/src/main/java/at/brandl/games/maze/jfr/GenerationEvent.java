@@ -0,0 +1,31 @@
+package at.brandl.games.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("at.brandl.maze.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+@Description("A maze generated from start to end")
+class GenerationEvent extends Event {
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Seed")
+	long seed;
+
+	@Label("Cells")
+	long cells;
+
+	@Label("Cancelled")
+	@Description("Stopped before it was done")
+	boolean cancelled;
+
+}
@@ -0,0 +1,108 @@
+package at.brandl.games.maze.jfr;
+
+import at.brandl.games.maze.generator.MazeGenerator.Phase;
+import at.brandl.games.maze.generator.MazeSpec;
+import at.brandl.games.maze.generator.MazeTracer;
+
+/**
+ * Records the traces of the generator as Java Flight Recorder events. Found
+ * by the generator as a service as soon as this module is on the class
+ * path. An event is only created and timed if it is enabled in the running
+ * recording, so without one the tracer costs an allocation the compiler
+ * usually removes.
+ */
+public class JfrTracer implements MazeTracer {
+
+	@Override
+	public Object startGeneration(int width, int height, long seed) {
+		GenerationEvent event = new GenerationEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.width = width;
+		event.height = height;
+		event.seed = seed;
+		event.cells = (long) width * height;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endGeneration(Object generation, boolean cancelled) {
+		GenerationEvent event = (GenerationEvent) generation;
+		event.cancelled = cancelled;
+		commit(event);
+	}
+
+	@Override
+	public Object startPhase(Phase phase, int width, int height, long seed) {
+		PhaseEvent event = new PhaseEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.phase = phase.name();
+		event.width = width;
+		event.height = height;
+		event.seed = seed;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endPhase(Object phase, int cellsPlaced, boolean cancelled) {
+		PhaseEvent event = (PhaseEvent) phase;
+		event.cellsPlaced = cellsPlaced;
+		event.cancelled = cancelled;
+		commit(event);
+	}
+
+	@Override
+	public Object startRefill(MazeSpec spec) {
+		RefillEvent event = new RefillEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.width = spec.getWidth();
+		event.height = spec.getHeight();
+		event.averageNumberOfStepsToNextBranch = spec
+				.getAverageNumberOfStepsToNextBranch();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endRefill(Object refill, int mazes) {
+		RefillEvent event = (RefillEvent) refill;
+		event.mazes = mazes;
+		commit(event);
+	}
+
+	@Override
+	public Object startQuery(String algorithm, int size, int from, int to) {
+		QueryEvent event = new QueryEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.algorithm = algorithm;
+		event.cells = size;
+		event.from = from;
+		event.to = to;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endQuery(Object query, int length) {
+		QueryEvent event = (QueryEvent) query;
+		event.length = length;
+		commit(event);
+	}
+
+	private void commit(jdk.jfr.Event event) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.commit();
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package at.brandl.games.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("at.brandl.maze.Phase")
+@Label("Maze Generation Phase")
+@Category("Maze")
+@Description("One phase of a maze generation")
+class PhaseEvent extends Event {
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Seed")
+	long seed;
+
+	@Label("Cells Placed")
+	int cellsPlaced;
+
+	@Label("Cancelled")
+	@Description("Stopped before it was done")
+	boolean cancelled;
+
+}
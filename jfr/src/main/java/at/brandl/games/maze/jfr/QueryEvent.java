@@ -0,0 +1,30 @@
+package at.brandl.games.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("at.brandl.maze.SolverQuery")
+@Label("Maze Solver Query")
+@Category("Maze")
+@Description("A shortest path query of a maze solver")
+class QueryEvent extends Event {
+
+	@Label("Algorithm")
+	String algorithm;
+
+	@Label("Cells")
+	int cells;
+
+	@Label("From")
+	int from;
+
+	@Label("To")
+	int to;
+
+	@Label("Path Length")
+	int length;
+
+}
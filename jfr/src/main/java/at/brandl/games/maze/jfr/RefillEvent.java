@@ -0,0 +1,27 @@
+package at.brandl.games.maze.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("at.brandl.maze.PoolRefill")
+@Label("Maze Pool Refill")
+@Category("Maze")
+@Description("Mazes generated in the background to refill a pool")
+class RefillEvent extends Event {
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Steps to Next Branch")
+	int averageNumberOfStepsToNextBranch;
+
+	@Label("Mazes")
+	int mazes;
+
+}
@@ -0,0 +1,172 @@
+package at.brandl.games.maze.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.MazeGenerator;
+import at.brandl.games.maze.generator.MazeGenerator.GenerationCancelledException;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.MazeTracer.Tracing;
+import at.brandl.games.maze.generator.ParallelMazeGenerator;
+import at.brandl.games.maze.generator.Path.Section;
+import at.brandl.games.maze.solver.BreadthFirstSolver;
+
+public class JfrTracerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void registered() {
+		assertTrue(Tracing.getTracer() instanceof JfrTracer);
+	}
+
+	@Test
+	public void events() throws Exception {
+		File file = folder.newFile("maze.jfr");
+		Board<Section> board = new Board<Section>(30, 20);
+		try (Recording recording = new Recording()) {
+			recording.enable("at.brandl.maze.Generation");
+			recording.enable("at.brandl.maze.Phase");
+			recording.enable("at.brandl.maze.SolverQuery");
+			recording.start();
+
+			new MazeGenerator(board, 4711).generate();
+			new BreadthFirstSolver(board).solve(0, board.getSize() - 1,
+					new int[board.getSize()]);
+
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+
+		List<String> names = new ArrayList<String>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+			String name = event.getEventType().getName();
+			if (name.startsWith("at.brandl.maze.")) {
+				names.add(name);
+			}
+			if (name.equals("at.brandl.maze.Generation")) {
+				assertEquals(4711, event.getLong("seed"));
+				assertEquals(600, event.getLong("cells"));
+			}
+			if (name.startsWith("at.brandl.maze.")
+					&& event.hasField("cancelled")) {
+				assertFalse(event.getBoolean("cancelled"));
+			}
+		}
+		assertEquals(1, count(names, "at.brandl.maze.Generation"));
+		assertEquals(MazeGenerator.Phase.values().length,
+				count(names, "at.brandl.maze.Phase"));
+		assertEquals(1, count(names, "at.brandl.maze.SolverQuery"));
+	}
+
+	@Test
+	public void cancelledGeneration() throws Exception {
+		File file = folder.newFile("cancelled.jfr");
+		final MazeGenerator generator = new MazeGenerator(new Board<Section>(
+				100, 100), 4711);
+		generator.addProgressListener(new ProgressListener() {
+			public void updateProgress(int progress) {
+				if (progress == 50) {
+					generator.cancel();
+				}
+			}
+		});
+		try (Recording recording = new Recording()) {
+			recording.enable("at.brandl.maze.Generation");
+			recording.enable("at.brandl.maze.Phase");
+			recording.start();
+
+			try {
+				generator.generate();
+				fail("generation not cancelled");
+			} catch (GenerationCancelledException e) {
+				// expected
+			}
+
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+
+		List<String> phases = new ArrayList<String>();
+		int generations = 0;
+		for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+			String name = event.getEventType().getName();
+			if (name.equals("at.brandl.maze.Generation")) {
+				assertTrue(event.getBoolean("cancelled"));
+				generations++;
+			}
+			if (name.equals("at.brandl.maze.Phase")) {
+				String phase = event.getString("phase");
+				phases.add(phase);
+				assertEquals(phase.equals(MazeGenerator.Phase.FILL.name()),
+						event.getBoolean("cancelled"));
+			}
+		}
+		assertEquals(1, generations);
+		assertEquals(Arrays.asList(MazeGenerator.Phase.BRANCHES.name(),
+				MazeGenerator.Phase.FILL.name()), phases);
+	}
+
+	@Test
+	public void interruptedParallelGeneration() throws Exception {
+		File file = folder.newFile("parallel.jfr");
+		ParallelMazeGenerator generator = new ParallelMazeGenerator(
+				new Board<Section>(100, 100), 4711);
+		generator.setTileSize(25);
+		try (Recording recording = new Recording()) {
+			recording.enable("at.brandl.maze.Generation");
+			recording.start();
+
+			Thread.currentThread().interrupt();
+			try {
+				generator.generate();
+				fail("generation not cancelled");
+			} catch (GenerationCancelledException e) {
+				// expected
+			} finally {
+				Thread.interrupted();
+			}
+
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+
+		int generations = 0;
+		for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+			if (event.getEventType().getName()
+					.equals("at.brandl.maze.Generation")) {
+				assertTrue(event.getBoolean("cancelled"));
+				generations++;
+			}
+		}
+		assertEquals(1, generations);
+	}
+
+	private int count(List<String> names, String name) {
+		int count = 0;
+		for (String each : names) {
+			if (each.equals(name)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -1,38 +1,27 @@
-
 package at.brandl.games.maze.swing;
 
-import static at.brandl.games.commons.Orientation.EAST;
-import static at.brandl.games.commons.Orientation.NORTH;
-import static at.brandl.games.commons.Orientation.SOUTH;
-import static at.brandl.games.commons.Orientation.WEST;
-
 import java.awt.Color;
-import java.awt.Component;
-import java.util.Enumeration;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
-import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JProgressBar;
 import javax.swing.JSlider;
-import javax.swing.JTable;
-import javax.swing.UIManager;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
-import javax.swing.border.Border;
-import javax.swing.border.MatteBorder;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableCellRenderer;
-import javax.swing.table.TableColumn;
-import javax.swing.table.TableModel;
 
 import at.brandl.games.commons.Board;
-import at.brandl.games.commons.Board.Field;
-import at.brandl.games.commons.Orientation;
-import at.brandl.games.maze.generator.MazeGenerator;
-import at.brandl.games.maze.generator.Path;
+import at.brandl.games.maze.generator.MazeGenerator.GenerationCancelledException;
+import at.brandl.games.maze.generator.MazeGenerator.ProgressListener;
+import at.brandl.games.maze.generator.MazePool;
+import at.brandl.games.maze.generator.MazeSpec;
 import at.brandl.games.maze.generator.Path.Section;
 
 public class MazeBoard extends JFrame implements ChangeListener {
@@ -41,56 +30,86 @@ public class MazeBoard extends JFrame implements ChangeListener {
 
 	private static final int BOARD_SIZE = 700;
 	private static final int MARGIN = 15;
-	private static final int BORDER_WIDTH = 2;
 
 	private static final int MIN_MAZE_SIZE = 10;
 	private static final int MAX_MAZE_SIZE = 50;
 	private static final int DEFAULT_MAZE_SIZE = 15;
+	private static final int AVERAGE_PATH_LENGTH = 15;
+	private static final int POOL_CAPACITY = 2;
+	private static final long PROGRESS_INTERVAL_MILLIS = 50;
 
-	private static int mazeSize = DEFAULT_MAZE_SIZE;
+	private static final Color START_COLOR = new Color(0x9999ff);
+	private static final Color END_COLOR = new Color(0x99ff99);
 
-	private static class MazeCellRenderer implements TableCellRenderer {
+	public static void main(String args[]) {
+		new MazeBoard();
+	}
 
-		public Component getTableCellRendererComponent(JTable table,
-				Object value, boolean isSelected, boolean hasFocus, int row,
-				int column) {
-			@SuppressWarnings("unchecked")
-			Field<Section> content = (Field<Section>) value;
-			JComponent cell = new Box(BoxLayout.LINE_AXIS);
-			cell.setBorder(createBorder(content.getContent()));
-			cell.setSize(MazeBoard.getFieldSize(), getFieldSize());
-			return cell;
-		}
+	/**
+	 * Takes a maze from the pool or generates one off the event dispatch
+	 * thread. The board is swapped in only if the worker is still the latest
+	 * one when it is done.
+	 */
+	private class GenerateWorker extends SwingWorker<Board<Section>, Void>
+			implements ProgressListener {
 
-		private Border createBorder(Section section) {
-			int top = getBorder(section, NORTH);
-			int right = getBorder(section, EAST);
-			int bottom = getBorder(section, SOUTH);
-			int left = getBorder(section, WEST);
+		private final MazeSpec spec;
 
-			Color color = UIManager.getColor("Table.gridColor");
-			return new MatteBorder(top, left, bottom, right, color);
+		private GenerateWorker(MazeSpec spec) {
+			this.spec = spec;
 		}
 
-		private int getBorder(Section section, Orientation orientation) {
-			return section.getNeighbour(orientation) != null ? 0 : BORDER_WIDTH;
+		@Override
+		protected Board<Section> doInBackground() {
+			return mazePool.get(spec, this);
 		}
 
-	}
+		@Override
+		public void updateProgress(int progress) {
+			setProgress(progress);
+		}
 
-	public static void main(String args[]) {
-		new MazeBoard();
+		/**
+		 * Interrupts the generator, which stops at its next progress check.
+		 */
+		private void stop() {
+			cancel(true);
+		}
+
+		@Override
+		protected void done() {
+			if (worker != this || isCancelled()) {
+				return;
+			}
+			worker = null;
+			progressBar.setVisible(false);
+			try {
+				showMaze(get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				if (!(e.getCause() instanceof GenerationCancelledException)) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		}
 	}
 
-	private Box box;
+	private final MazePool mazePool = new MazePool(POOL_CAPACITY);
+	private final MazeComponent maze = new MazeComponent(BOARD_SIZE);
+	private final JProgressBar progressBar = new JProgressBar();
+	private GenerateWorker worker;
+	private int mazeSize = DEFAULT_MAZE_SIZE;
 
 	public MazeBoard() {
 		setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+		mazePool.setProgressInterval(PROGRESS_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS);
 
-		box = createBox();
+		Box box = createBox();
 		add(box);
 
-		JTable maze = createMaze();
+		createMaze();
 
 		box.add(maze);
 		Box controls = createControls();
@@ -100,21 +119,41 @@ public class MazeBoard extends JFrame implements ChangeListener {
 
 	}
 
-	private JTable createMaze() {
-		JTable table = createTable();
-		table.setModel(createDataModel());
-		layoutTable(table);
-		return table;
+	/**
+	 * Cancels the maze still generated for an earlier request.
+	 */
+	private void createMaze() {
+		if (worker != null) {
+			worker.stop();
+		}
+		progressBar.setValue(0);
+		progressBar.setVisible(true);
+		worker = new GenerateWorker(createSpec(mazeSize));
+		worker.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent event) {
+				if ("progress".equals(event.getPropertyName())
+						&& event.getSource() == worker) {
+					progressBar.setValue((Integer) event.getNewValue());
+				}
+			}
+		});
+		worker.execute();
+	}
+
+	private void showMaze(Board<Section> board) {
+		prefetchNeighbourSizes();
+
+		maze.setBoard(board);
+		maze.setCellColor(board.getStart().getIndex(), START_COLOR);
+		maze.setCellColor(board.getEnd().getIndex(), END_COLOR);
+		pack();
 	}
 
 	public void stateChanged(ChangeEvent event) {
 		JSlider source = (JSlider) event.getSource();
 		if (!source.getValueIsAdjusting()) {
 			mazeSize = source.getValue();
-			JTable maze = createMaze();
-			box.remove(0);
-			box.add(maze, 0);
-			pack();
+			createMaze();
 		}
 	}
 
@@ -126,6 +165,7 @@ public class MazeBoard extends JFrame implements ChangeListener {
 				DEFAULT_MAZE_SIZE);
 		difficulty.addChangeListener(this);
 		box.add(difficulty);
+		box.add(progressBar);
 		return box;
 	}
 
@@ -136,44 +176,21 @@ public class MazeBoard extends JFrame implements ChangeListener {
 		return box;
 	}
 
-	private JTable createTable() {
-		JTable table = new JTable(mazeSize, mazeSize);
-
-		table.setShowGrid(false);
-		table.setRowHeight(getFieldSize());
-		table.setDefaultRenderer(Object.class, new MazeCellRenderer());
-
-		return table;
-	}
-
-	private void layoutTable(JTable table) {
-		Enumeration<TableColumn> columns = table.getColumnModel().getColumns();
-		while (columns.hasMoreElements()) {
-			TableColumn column = columns.nextElement();
-			column.setMinWidth(getFieldSize());
-			column.setMaxWidth(getFieldSize());
-			column.setPreferredWidth(getFieldSize());
+	/**
+	 * Prepares mazes one step smaller and larger, so moving the slider by one
+	 * does not wait for the generator.
+	 */
+	private void prefetchNeighbourSizes() {
+		if (mazeSize > MIN_MAZE_SIZE) {
+			mazePool.prefetch(createSpec(mazeSize - 1));
 		}
-		table.doLayout();
-	}
-
-	private TableModel createDataModel() {
-		TableModel dataModel = new DefaultTableModel(mazeSize, mazeSize);
-		Board<Section> board = new Board<Path.Section>(mazeSize, mazeSize);
-		MazeGenerator mazeGenerator = new MazeGenerator(board);
-
-		mazeGenerator.generate();
-
-		for (int row = 0; row < mazeSize; row++) {
-			for (int column = 0; column < mazeSize; column++) {
-				dataModel.setValueAt(board.getField(row, column), row, column);
-			}
+		if (mazeSize < MAX_MAZE_SIZE) {
+			mazePool.prefetch(createSpec(mazeSize + 1));
 		}
-		return dataModel;
 	}
 
-	private static int getFieldSize() {
-		return BOARD_SIZE / mazeSize;
+	private static MazeSpec createSpec(int size) {
+		return new MazeSpec(size, size, AVERAGE_PATH_LENGTH);
 	}
 
 }
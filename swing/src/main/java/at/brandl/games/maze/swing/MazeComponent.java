@@ -0,0 +1,269 @@
+package at.brandl.games.maze.swing;
+
+import static at.brandl.games.commons.Orientation.EAST;
+import static at.brandl.games.commons.Orientation.SOUTH;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JComponent;
+import javax.swing.UIManager;
+
+import at.brandl.games.commons.Board;
+import at.brandl.games.maze.generator.Path.Section;
+
+/**
+ * Draws a maze into an image that is kept until the maze or the size of the
+ * cells changes, so painting only copies the clipped part of the image. The
+ * cells are as large as the component allows, with walls of about a twelfth
+ * of a cell.
+ */
+public class MazeComponent extends JComponent {
+
+	private static final long serialVersionUID = -4580006045012962140L;
+
+	private static final int MIN_CELL_SIZE = 3;
+	private static final int WALL_RATIO = 12;
+
+	private final int preferredSize;
+	private Color wallColor;
+	private Color fieldColor;
+
+	private int columns;
+	private int rows;
+	private byte[] passages;
+	private Color[] cellColors;
+
+	private BufferedImage image;
+	private int cellSize;
+	private int wallWidth;
+
+	/**
+	 * @param preferredSize
+	 *            the preferred length of the longer side of the maze, as long
+	 *            as the cells are not smaller than the minimum.
+	 */
+	public MazeComponent(int preferredSize) {
+		this.preferredSize = preferredSize;
+		wallColor = getColor("Table.gridColor", Color.GRAY);
+		fieldColor = getColor("Table.background", Color.WHITE);
+		setOpaque(true);
+	}
+
+	public void setBoard(Board<Section> board) {
+		columns = board.getWidth();
+		rows = board.getHeight();
+		passages = new byte[board.getSize()];
+		for (int index = 0; index < passages.length; index++) {
+			passages[index] = (byte) board.getField(index).getPassages();
+		}
+		cellColors = new Color[passages.length];
+		image = null;
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Colours a single cell, <code>null</code> for the colour of the fields,
+	 * and repaints only that cell.
+	 */
+	public void setCellColor(int index, Color color) {
+		cellColors[index] = color;
+		if (image != null) {
+			Graphics2D graphics = image.createGraphics();
+			try {
+				drawCell(graphics, index);
+			} finally {
+				graphics.dispose();
+			}
+			Rectangle cell = getCellBounds(index);
+			Insets insets = getInsets();
+			repaint(insets.left + cell.x, insets.top + cell.y, cell.width,
+					cell.height);
+		}
+	}
+
+	public void setWallColor(Color wallColor) {
+		this.wallColor = wallColor;
+		image = null;
+		repaint();
+	}
+
+	public void setFieldColor(Color fieldColor) {
+		this.fieldColor = fieldColor;
+		image = null;
+		repaint();
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet() || passages == null) {
+			return super.getPreferredSize();
+		}
+		int cellSize = Math.max(MIN_CELL_SIZE,
+				preferredSize / Math.max(columns, rows));
+		int wallWidth = getWallWidth(cellSize);
+		Insets insets = getInsets();
+		return new Dimension(columns * cellSize + wallWidth + insets.left
+				+ insets.right, rows * cellSize + wallWidth + insets.top
+				+ insets.bottom);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		if (passages == null) {
+			return;
+		}
+
+		Insets insets = getInsets();
+		int cellSize = calcCellSize(insets);
+		if (image == null || cellSize != this.cellSize) {
+			this.cellSize = cellSize;
+			wallWidth = getWallWidth(cellSize);
+			image = renderImage();
+		}
+
+		// copy only the dirty part of the image
+		Rectangle dirty = clip.intersection(new Rectangle(insets.left,
+				insets.top, image.getWidth(), image.getHeight()));
+		if (!dirty.isEmpty()) {
+			int x = dirty.x - insets.left;
+			int y = dirty.y - insets.top;
+			g.drawImage(image, dirty.x, dirty.y, dirty.x + dirty.width,
+					dirty.y + dirty.height, x, y, x + dirty.width, y
+							+ dirty.height, null);
+		}
+	}
+
+	private int calcCellSize(Insets insets) {
+		int width = getWidth() - insets.left - insets.right;
+		int height = getHeight() - insets.top - insets.bottom;
+		int cellSize = Math.min(width / columns, height / rows);
+		// leave room for the walls on the right and bottom border
+		while (cellSize > MIN_CELL_SIZE
+				&& (columns * cellSize + getWallWidth(cellSize) > width || rows
+						* cellSize + getWallWidth(cellSize) > height)) {
+			cellSize--;
+		}
+		return Math.max(MIN_CELL_SIZE, cellSize);
+	}
+
+	private BufferedImage renderImage() {
+		int width = columns * cellSize + wallWidth;
+		int height = rows * cellSize + wallWidth;
+		GraphicsConfiguration configuration = getGraphicsConfiguration();
+		BufferedImage image = configuration == null ? new BufferedImage(width,
+				height, BufferedImage.TYPE_INT_RGB) : configuration
+				.createCompatibleImage(width, height);
+
+		Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setColor(fieldColor);
+			graphics.fillRect(0, 0, width, height);
+			for (int index = 0; index < cellColors.length; index++) {
+				if (cellColors[index] != null) {
+					fillCell(graphics, index, cellColors[index]);
+				}
+			}
+			drawWalls(graphics);
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Draws the walls in runs of neighbouring cells, so a wall along a whole
+	 * row or column takes a single rectangle.
+	 */
+	private void drawWalls(Graphics2D graphics) {
+		graphics.setColor(wallColor);
+		graphics.fillRect(0, 0, columns * cellSize + wallWidth, wallWidth);
+		graphics.fillRect(0, 0, wallWidth, rows * cellSize + wallWidth);
+
+		int southMask = SOUTH.getMask();
+		for (int row = 0; row < rows; row++) {
+			int y = (row + 1) * cellSize;
+			int column = 0;
+			while (column < columns) {
+				int first = column;
+				while (column < columns
+						&& (passages[row * columns + column] & southMask) == 0) {
+					column++;
+				}
+				if (column > first) {
+					graphics.fillRect(first * cellSize, y, (column - first)
+							* cellSize + wallWidth, wallWidth);
+				}
+				column++;
+			}
+		}
+
+		int eastMask = EAST.getMask();
+		for (int column = 0; column < columns; column++) {
+			int x = (column + 1) * cellSize;
+			int row = 0;
+			while (row < rows) {
+				int first = row;
+				while (row < rows
+						&& (passages[row * columns + column] & eastMask) == 0) {
+					row++;
+				}
+				if (row > first) {
+					graphics.fillRect(x, first * cellSize, wallWidth,
+							(row - first) * cellSize + wallWidth);
+				}
+				row++;
+			}
+		}
+	}
+
+	/**
+	 * Redraws the inside of a cell, which the walls around it do not
+	 * overlap.
+	 */
+	private void drawCell(Graphics2D graphics, int index) {
+		Color color = cellColors[index];
+		fillCell(graphics, index, color == null ? fieldColor : color);
+	}
+
+	private void fillCell(Graphics2D graphics, int index, Color color) {
+		Rectangle cell = getCellBounds(index);
+		graphics.setColor(color);
+		graphics.fillRect(cell.x + wallWidth, cell.y + wallWidth, cellSize
+				- wallWidth, cellSize - wallWidth);
+	}
+
+	/**
+	 * @return the bounds of the cell within the image, including the walls on
+	 *         all sides.
+	 */
+	private Rectangle getCellBounds(int index) {
+		int row = index / columns;
+		int column = index % columns;
+		return new Rectangle(column * cellSize, row * cellSize, cellSize
+				+ wallWidth, cellSize + wallWidth);
+	}
+
+	private static int getWallWidth(int cellSize) {
+		return Math.max(1, cellSize / WALL_RATIO);
+	}
+
+	private static Color getColor(String key, Color defaultColor) {
+		Color color = UIManager.getColor(key);
+		return color == null ? defaultColor : color;
+	}
+
+}